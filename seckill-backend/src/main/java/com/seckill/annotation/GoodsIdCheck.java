@@ -0,0 +1,18 @@
+package com.seckill.annotation;
+
+import java.lang.annotation.*;
+
+/**
+ * 商品ID前置校验注解
+ * 从路径变量 seckillGoodsId 取商品ID，在进程内位图中校验，未知ID不会访问 Redis 和 MySQL
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface GoodsIdCheck {
+    /**
+     * 是否要求秒杀活动进行中
+     * false = 只要求商品已上架
+     */
+    boolean active() default false;
+}
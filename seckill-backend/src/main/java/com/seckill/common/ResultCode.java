@@ -17,6 +17,7 @@ public enum ResultCode {
     UNAUTHORIZED(401, "未登录或Token已过期"),
     FORBIDDEN(403, "没有操作权限"),
     NOT_FOUND(404, "资源不存在"),
+    SERVICE_BUSY(503, "系统繁忙，请稍后再试"),
 
     // ==================== 用户模块 1xxx ====================
     USER_NOT_FOUND(1001, "用户不存在"),
@@ -38,6 +39,7 @@ public enum ResultCode {
     SECKILL_PATH_INVALID(3006, "秒杀路径不合法"),
     SECKILL_CAPTCHA_ERROR(3007, "验证码错误"),
     SECKILL_QUEUING(3008, "正在排队中，请稍候"),
+    SECKILL_NOT_ACTIVE(3009, "秒杀活动未在进行中"),
 
     // ==================== 订单模块 4xxx ====================
     ORDER_NOT_FOUND(4001, "订单不存在"),
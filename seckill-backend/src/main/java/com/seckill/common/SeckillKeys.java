@@ -0,0 +1,109 @@
+package com.seckill.common;
+
+/**
+ * 秒杀相关 Redis Key 统一定义（兼容 Redis Cluster）
+ *
+ * <p>
+ * Redis Cluster 只对 {} 内的 hash tag 计算槽位。同一商品的所有 key 都以 seckill:{goodsId}: 开头，
+ * 一次 EVAL 涉及的库存、订单标记、排队号、处理水位等 key 必然落在同一个槽，不会 CROSSSLOT；
+ * 不同商品分散到不同分片，秒杀流量可以按商品水平扩展。
+ * 验证码与秒杀路径会在同一个脚本中访问，因此验证码 key 也使用商品 hash tag。
+ * </p>
+ *
+ * <p>
+ * 与商品无关的 key（登录 Token、限流计数、商品列表缓存）只做单 key 操作，保持原格式。
+ * 旧格式 key 的迁移见 SeckillKeyMigrator。
+ * </p>
+ */
+public final class SeckillKeys {
+
+    private static final String PREFIX = "seckill:{";
+
+    /** 扫描全部库存 key 的匹配模式 */
+    public static final String STOCK_PATTERN = "seckill:{*}:stock";
+    /** 商品列表缓存 */
+    public static final String GOODS_LIST = "seckill:goods:list";
+
+    private SeckillKeys() {
+    }
+
+    /** 商品级 key 前缀 seckill:{goodsId}: */
+    private static String goods(Long seckillGoodsId) {
+        return PREFIX + seckillGoodsId + "}:";
+    }
+
+    /** 预热库存 */
+    public static String stock(Long seckillGoodsId) {
+        return goods(seckillGoodsId) + "stock";
+    }
+
+    /** 排队号发放计数 */
+    public static String ticket(Long seckillGoodsId) {
+        return goods(seckillGoodsId) + "ticket";
+    }
+
+    /** 已处理消息数（排队水位） */
+    public static String queueDone(Long seckillGoodsId) {
+        return goods(seckillGoodsId) + "done";
+    }
+
+    /** 订单去重标记（keys 存储模式） */
+    public static String order(Long userId, Long seckillGoodsId) {
+        return goods(seckillGoodsId) + "order:" + userId;
+    }
+
+    /** 秒杀结果（keys 存储模式） */
+    public static String result(Long userId, Long seckillGoodsId) {
+        return goods(seckillGoodsId) + "result:" + userId;
+    }
+
+    /** 购买者位图（compact 存储模式） */
+    public static String buyers(Long seckillGoodsId) {
+        return goods(seckillGoodsId) + "buyers";
+    }
+
+    /** 秒杀结果 Hash（compact 存储模式） */
+    public static String results(Long seckillGoodsId) {
+        return goods(seckillGoodsId) + "results";
+    }
+
+    /** 已消费的秒杀消息 */
+    public static String consumed(Long seckillGoodsId) {
+        return goods(seckillGoodsId) + "consumed";
+    }
+
+    /** 开抢预热进度 */
+    public static String warmup(Long seckillGoodsId) {
+        return goods(seckillGoodsId) + "warmup";
+    }
+
+    /** 秒杀路径（redis 路径模式） */
+    public static String path(Long userId, Long seckillGoodsId) {
+        return goods(seckillGoodsId) + "path:" + userId;
+    }
+
+    /** 已使用的秒杀令牌 nonce（hmac 路径模式，保留到令牌过期） */
+    public static String pathNonce(Long seckillGoodsId, String nonce) {
+        return goods(seckillGoodsId) + "nonce:" + nonce;
+    }
+
+    /** 验证码答案 */
+    public static String captcha(Long userId, Long seckillGoodsId) {
+        return goods(seckillGoodsId) + "captcha:" + userId;
+    }
+
+    /** 商品详情缓存 */
+    public static String goodsDetail(Long seckillGoodsId) {
+        return goods(seckillGoodsId) + "detail";
+    }
+
+    /** 订单号 workerId 租约（同一 workerId 的两个 key 共用 hash tag，续约脚本可在集群上执行） */
+    public static String workerLease(int workerId) {
+        return "seckill:worker:{" + workerId + "}";
+    }
+
+    /** 订单号 workerId 已发号的最大时间戳 */
+    public static String workerTimestamp(int workerId) {
+        return workerLease(workerId) + ":ts";
+    }
+}
@@ -0,0 +1,107 @@
+package com.seckill.config;
+
+import com.seckill.metrics.SeckillMetrics;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * 读写分离 / 消费端连接池数据源配置（seckill.datasource.replica.enabled 或 seckill.datasource.consumer.enabled 为 true 时生效）
+ *
+ * <p>
+ * 问题背景：订单列表/详情/统计、管理后台仪表盘、商品缓存未命中等查询与消费端的减库存、写订单共用主库的 20 个连接，
+ * 开抢期间互相争抢。开启读写分离后主库与只读副本各一个 Hikari 连接池，查询按 ReadWriteRoutingDataSource 的规则路由，
+ * 秒杀消费、对账、快照加载等不做标记的查询仍走主库。未开启时沿用 Spring Boot 自动配置的单数据源。
+ * </p>
+ *
+ * <p>
+ * 开启消费端连接池（舱壁）后，MQ 消费者的下单、超时取消使用单独的主库连接池（poolName=consumer），
+ * 仪表盘等重量级查询占满主库连接池时不会拖慢下单；各连接池的占用、等待、超时见 hikaricp_connections_*{pool}。
+ * </p>
+ */
+@Configuration
+@ConditionalOnExpression("${seckill.datasource.replica.enabled:false} or ${seckill.datasource.consumer.enabled:false}")
+public class DataSourceConfig {
+
+    /**
+     * 主库连接池（沿用 spring.datasource 配置）
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * 消费端专用连接池（连主库，沿用 spring.datasource 的地址和账号）
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "seckill.datasource.consumer", name = "enabled", havingValue = "true")
+    @ConfigurationProperties("seckill.datasource.consumer.hikari")
+    public HikariDataSource consumerDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("consumer");
+        return dataSource;
+    }
+
+    /**
+     * 只读副本连接池（驱动按 URL 推断）
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "seckill.datasource.replica", name = "enabled", havingValue = "true")
+    @ConfigurationProperties("seckill.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(
+            @Value("${seckill.datasource.replica.url}") String url,
+            @Value("${seckill.datasource.replica.username}") String username,
+            @Value("${seckill.datasource.replica.password}") String password) {
+        HikariDataSource dataSource = DataSourceBuilder.create()
+                .type(HikariDataSource.class)
+                .url(url)
+                .username(username)
+                .password(password)
+                .build();
+        dataSource.setPoolName("replica");
+        dataSource.setReadOnly(true);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "seckill.datasource.replica", name = "enabled", havingValue = "true")
+    public ReplicaLagMonitor replicaLagMonitor(
+            @Qualifier("replicaDataSource") DataSource replica,
+            SeckillMetrics seckillMetrics,
+            @Value("${seckill.datasource.replica.lag-check:true}") boolean lagCheck,
+            @Value("${seckill.datasource.replica.max-lag-seconds:1}") long maxLagSeconds) {
+        return new ReplicaLagMonitor(replica, seckillMetrics, lagCheck, maxLagSeconds);
+    }
+
+    /**
+     * 对外唯一的数据源：MyBatis、事务管理器都使用它
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") ObjectProvider<DataSource> replica,
+            ObjectProvider<ReplicaLagMonitor> replicaLagMonitor,
+            @Qualifier("consumerDataSource") ObjectProvider<DataSource> consumer) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primary, replica.getIfAvailable(),
+                replicaLagMonitor.getIfAvailable(), consumer.getIfAvailable());
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
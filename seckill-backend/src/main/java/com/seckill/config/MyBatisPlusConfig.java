@@ -2,7 +2,9 @@ package com.seckill.config;
 
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.DynamicTableNameInnerInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.seckill.service.OrderSharding;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -13,11 +15,16 @@ import org.springframework.context.annotation.Configuration;
 public class MyBatisPlusConfig {
 
     /**
-     * 分页插件
+     * 动态表名插件（订单分表时启用，需在分页插件之前）+ 分页插件
      */
     @Bean
-    public MybatisPlusInterceptor mybatisPlusInterceptor() {
+    public MybatisPlusInterceptor mybatisPlusInterceptor(OrderSharding orderSharding) {
         MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+        if (orderSharding.isSharded()) {
+            DynamicTableNameInnerInterceptor dynamicTableName = new DynamicTableNameInnerInterceptor();
+            dynamicTableName.setTableNameHandler((sql, tableName) -> orderSharding.resolve(tableName));
+            interceptor.addInnerInterceptor(dynamicTableName);
+        }
         interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
         return interceptor;
     }
@@ -0,0 +1,209 @@
+package com.seckill.config;
+
+import io.lettuce.core.api.StatefulConnection;
+import io.lettuce.core.resource.ClientResources;
+import io.lettuce.core.resource.NettyCustomizer;
+import io.netty.channel.Channel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.RedisClusterConnection;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisSentinelConnection;
+import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.connection.lettuce.LettucePoolingClientConfiguration;
+import org.springframework.lang.NonNull;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 抢购链路专用 Redis 连接（舱壁）
+ *
+ * <p>
+ * 问题背景：秒杀 Lua、限流脚本、Token 校验、秒杀结果读写与商品列表/详情缓存、管理后台共用同一个 Lettuce 连接工厂，
+ * 商品缓存刷新风暴会让抢购请求排队等连接（max-wait 3 秒）。
+ * 开启 seckill.bulkhead.redis.enabled 后按主连接的地址、库号、超时、TLS 等配置另建连接，模式由 mode 决定：
+ * </p>
+ *
+ * <ul>
+ * <li>pooled：独立连接池，每条命令独占一个连接（不共享原生连接），池满时最多等待 max-wait-ms 即失败；
+ * 共享主连接的 ClientResources（事件循环线程）</li>
+ * <li>shared：不使用连接池，shared-connections 个长连接轮流承载所有命令（Lettuce 连接本身线程安全、可多路复用），
+ * 并发调用方的命令在同一连接上流水线发送，无需借还连接；flush-consolidation 大于 0 时在 Netty 管道最前面加
+ * FlushConsolidationHandler，同一轮事件循环内的多次 flush 合并为一次 socket 写</li>
+ * </ul>
+ *
+ * 未开启或主连接不是 Lettuce 时直接复用主连接。
+ */
+@Slf4j
+public class PurchaseRedisConnection implements DisposableBean {
+
+    public enum Mode {
+        POOLED, SHARED
+    }
+
+    private final RedisConnectionFactory connectionFactory;
+    private final List<LettuceConnectionFactory> dedicated = new ArrayList<>();
+    private ClientResources clientResources;
+
+    /**
+     * @param sharedConnections   shared 模式下的长连接数
+     * @param flushConsolidation  shared 模式下最多合并多少次 flush 后强制写出，0 表示不合并
+     */
+    public PurchaseRedisConnection(RedisConnectionFactory shared, boolean enabled, Mode mode,
+            int maxActive, long maxWaitMillis, int sharedConnections, int flushConsolidation) {
+        if (!enabled || !(shared instanceof LettuceConnectionFactory lettuce)) {
+            if (enabled) {
+                log.warn("[舱壁] 主 Redis 连接不是 Lettuce, 抢购链路复用主连接");
+            }
+            this.connectionFactory = shared;
+            return;
+        }
+        if (mode == Mode.SHARED) {
+            this.connectionFactory = createShared(lettuce, Math.max(1, sharedConnections), flushConsolidation);
+            log.info("[舱壁] 抢购链路使用 {} 个共享 Redis 连接, flush 合并={}", sharedConnections, flushConsolidation);
+        } else {
+            this.connectionFactory = createPooled(lettuce, maxActive, maxWaitMillis);
+            log.info("[舱壁] 抢购链路使用独立 Redis 连接池, max-active={}, max-wait={}ms", maxActive, maxWaitMillis);
+        }
+    }
+
+    private RedisConnectionFactory createPooled(LettuceConnectionFactory lettuce, int maxActive, long maxWaitMillis) {
+        LettuceClientConfiguration base = lettuce.getClientConfiguration();
+        GenericObjectPoolConfig<StatefulConnection<?, ?>> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxTotal(maxActive);
+        poolConfig.setMaxIdle(maxActive);
+        poolConfig.setMinIdle(Math.min(2, maxActive));
+        poolConfig.setMaxWait(Duration.ofMillis(maxWaitMillis));
+        LettucePoolingClientConfiguration.LettucePoolingClientConfigurationBuilder builder =
+                LettucePoolingClientConfiguration.builder()
+                        .poolConfig(poolConfig)
+                        .commandTimeout(base.getCommandTimeout())
+                        .shutdownTimeout(base.getShutdownTimeout());
+        base.getClientOptions().ifPresent(builder::clientOptions);
+        base.getClientResources().ifPresent(builder::clientResources);
+        if (base.isUseSsl()) {
+            builder.useSsl();
+        }
+        LettuceConnectionFactory factory = newFactory(lettuce, builder.build());
+        // 默认的共享原生连接会让非阻塞命令绕过连接池，池的上限和等待时长形同虚设
+        factory.setShareNativeConnection(false);
+        return start(factory);
+    }
+
+    private RedisConnectionFactory createShared(LettuceConnectionFactory lettuce, int connections, int flushConsolidation) {
+        LettuceClientConfiguration base = lettuce.getClientConfiguration();
+        LettuceClientConfiguration.LettuceClientConfigurationBuilder builder = LettuceClientConfiguration.builder()
+                .commandTimeout(base.getCommandTimeout())
+                .shutdownTimeout(base.getShutdownTimeout());
+        base.getClientOptions().ifPresent(builder::clientOptions);
+        if (flushConsolidation > 0) {
+            clientResources = ClientResources.builder()
+                    .nettyCustomizer(new FlushConsolidation(flushConsolidation))
+                    .build();
+            builder.clientResources(clientResources);
+        } else {
+            base.getClientResources().ifPresent(builder::clientResources);
+        }
+        if (base.isUseSsl()) {
+            builder.useSsl();
+        }
+        LettuceClientConfiguration clientConfiguration = builder.build();
+        List<RedisConnectionFactory> factories = new ArrayList<>(connections);
+        for (int i = 0; i < connections; i++) {
+            LettuceConnectionFactory factory = newFactory(lettuce, clientConfiguration);
+            factory.setShareNativeConnection(true);
+            factories.add(start(factory));
+        }
+        return factories.size() == 1 ? factories.get(0) : new RoundRobinConnectionFactory(factories);
+    }
+
+    private static LettuceConnectionFactory newFactory(LettuceConnectionFactory lettuce,
+            LettuceClientConfiguration clientConfiguration) {
+        return lettuce.getClusterConfiguration() != null
+                ? new LettuceConnectionFactory(lettuce.getClusterConfiguration(), clientConfiguration)
+                : new LettuceConnectionFactory(lettuce.getStandaloneConfiguration(), clientConfiguration);
+    }
+
+    private LettuceConnectionFactory start(LettuceConnectionFactory factory) {
+        factory.afterPropertiesSet();
+        factory.start();
+        dedicated.add(factory);
+        return factory;
+    }
+
+    public RedisConnectionFactory getConnectionFactory() {
+        return connectionFactory;
+    }
+
+    @Override
+    public void destroy() {
+        dedicated.forEach(LettuceConnectionFactory::destroy);
+        if (clientResources != null) {
+            clientResources.shutdown();
+        }
+    }
+
+    /**
+     * 在 Netty 管道最前面合并 flush：读处理中的 flush 推迟到读完成，否则推迟到事件循环的下一个任务
+     */
+    private record FlushConsolidation(int explicitFlushAfterFlushes) implements NettyCustomizer {
+
+        @Override
+        public void afterChannelInitialized(Channel channel) {
+            channel.pipeline().addFirst(new FlushConsolidationHandler(explicitFlushAfterFlushes, true));
+        }
+    }
+
+    /**
+     * 多个共享连接轮流使用（每个工厂各自持有一个共享原生连接）
+     */
+    private static final class RoundRobinConnectionFactory implements RedisConnectionFactory {
+
+        private final List<RedisConnectionFactory> factories;
+        private final AtomicInteger next = new AtomicInteger();
+
+        private RoundRobinConnectionFactory(List<RedisConnectionFactory> factories) {
+            this.factories = List.copyOf(factories);
+        }
+
+        private RedisConnectionFactory pick() {
+            return factories.get(Math.floorMod(next.getAndIncrement(), factories.size()));
+        }
+
+        @Override
+        @NonNull
+        public RedisConnection getConnection() {
+            return pick().getConnection();
+        }
+
+        @Override
+        @NonNull
+        public RedisClusterConnection getClusterConnection() {
+            return pick().getClusterConnection();
+        }
+
+        @Override
+        public boolean getConvertPipelineAndTxResults() {
+            return factories.get(0).getConvertPipelineAndTxResults();
+        }
+
+        @Override
+        @NonNull
+        public RedisSentinelConnection getSentinelConnection() {
+            return pick().getSentinelConnection();
+        }
+
+        @Override
+        public DataAccessException translateExceptionIfPossible(@NonNull RuntimeException ex) {
+            return factories.get(0).translateExceptionIfPossible(ex);
+        }
+    }
+}
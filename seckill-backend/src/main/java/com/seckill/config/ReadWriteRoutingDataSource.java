@@ -0,0 +1,68 @@
+package com.seckill.config;
+
+import com.seckill.utils.DataSourceRouting;
+import com.seckill.utils.DataSourceRouting.Route;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 读写分离路由数据源
+ *
+ * <p>
+ * 路由规则（副本不可用或未配置时一律走主库）：
+ * - 线程标记为消费端（DataSourceRouting.onConsumer）：消费端专用连接池（未配置时主库）
+ * - 写事务：主库
+ * - 只读事务 @Transactional(readOnly = true)：副本，除非线程标记了主库
+ * - 无事务：线程标记为副本（DataSourceRouting.onReplica）时走副本，否则主库
+ * </p>
+ *
+ * 需包装在 LazyConnectionDataSourceProxy 中使用：事务开始时只读标志尚未就绪，真正执行 SQL 时才决定目标库。
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private final ReplicaLagMonitor lagMonitor;
+    private final boolean hasConsumer;
+
+    /**
+     * @param replica  只读副本，未开启读写分离时为 null
+     * @param consumer 消费端专用连接池，未开启时为 null
+     */
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaLagMonitor lagMonitor,
+            DataSource consumer) {
+        this.lagMonitor = replica != null ? lagMonitor : null;
+        this.hasConsumer = consumer != null;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(Route.PRIMARY, primary);
+        if (replica != null) {
+            targets.put(Route.REPLICA, replica);
+        }
+        if (consumer != null) {
+            targets.put(Route.CONSUMER, consumer);
+        }
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (DataSourceRouting.current() == Route.CONSUMER) {
+            return hasConsumer ? Route.CONSUMER : Route.PRIMARY;
+        }
+        return useReplica() ? Route.REPLICA : Route.PRIMARY;
+    }
+
+    private boolean useReplica() {
+        if (lagMonitor == null || !lagMonitor.isUsable()) {
+            return false;
+        }
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            return TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                    && DataSourceRouting.current() != Route.PRIMARY;
+        }
+        return DataSourceRouting.current() == Route.REPLICA;
+    }
+}
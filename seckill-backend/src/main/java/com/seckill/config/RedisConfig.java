@@ -6,14 +6,19 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.jsontype.impl.LaissezFaireSubTypeValidator;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.seckill.service.StockOverFlags;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
+import java.util.List;
+
 /**
  * Redis 配置类
  */
@@ -22,18 +27,51 @@ public class RedisConfig {
 
     @Bean
     public RedisTemplate<String, Object> redisTemplate(RedisConnectionFactory factory) {
-        RedisTemplate<String, Object> template = new RedisTemplate<>();
-        template.setConnectionFactory(factory);
+        return jsonTemplate(factory);
+    }
 
-        // JSON序列化配置
+    /**
+     * 抢购链路专用连接（舱壁，见 PurchaseRedisConnection）
+     */
+    @Bean
+    public PurchaseRedisConnection purchaseRedisConnection(RedisConnectionFactory factory,
+            @Value("${seckill.bulkhead.redis.enabled:false}") boolean enabled,
+            @Value("${seckill.bulkhead.redis.mode:pooled}") String mode,
+            @Value("${seckill.bulkhead.redis.max-active:16}") int maxActive,
+            @Value("${seckill.bulkhead.redis.max-wait-ms:200}") long maxWaitMillis,
+            @Value("${seckill.bulkhead.redis.shared-connections:2}") int sharedConnections,
+            @Value("${seckill.bulkhead.redis.flush-consolidation:256}") int flushConsolidation) {
+        return new PurchaseRedisConnection(factory, enabled, PurchaseRedisConnection.Mode.valueOf(mode.toUpperCase()),
+                maxActive, maxWaitMillis, sharedConnections, flushConsolidation);
+    }
+
+    /**
+     * 抢购链路 RedisTemplate：秒杀 Lua、订单标记与秒杀结果、限流脚本、Token 校验使用，序列化与 redisTemplate 一致
+     */
+    @Bean
+    public RedisTemplate<String, Object> purchaseRedisTemplate(PurchaseRedisConnection purchaseRedisConnection) {
+        return jsonTemplate(purchaseRedisConnection.getConnectionFactory());
+    }
+
+    /**
+     * value 的 JSON 序列化器（带类型信息）；响应式网关使用同一个序列化器，两边读写的 value 和脚本参数格式一致
+     */
+    public static GenericJackson2JsonRedisSerializer jsonSerializer() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.setVisibility(PropertyAccessor.ALL, JsonAutoDetect.Visibility.ANY);
         mapper.activateDefaultTyping(LaissezFaireSubTypeValidator.instance,
                 ObjectMapper.DefaultTyping.NON_FINAL);
         mapper.registerModule(new JavaTimeModule());
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        return new GenericJackson2JsonRedisSerializer(mapper);
+    }
+
+    private static RedisTemplate<String, Object> jsonTemplate(RedisConnectionFactory factory) {
+        RedisTemplate<String, Object> template = new RedisTemplate<>();
+        template.setConnectionFactory(factory);
 
-        GenericJackson2JsonRedisSerializer jsonSerializer = new GenericJackson2JsonRedisSerializer(mapper);
+        // JSON序列化配置
+        GenericJackson2JsonRedisSerializer jsonSerializer = jsonSerializer();
         StringRedisSerializer stringSerializer = new StringRedisSerializer();
 
         // key使用String序列化
@@ -47,32 +85,208 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Redis Pub/Sub 监听容器
+     * 各组件在 @PostConstruct 中自行注册频道监听（如秒杀结果推送）
+     */
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory factory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(factory);
+        return container;
+    }
+
     /**
      * Redis Lua 脚本 - 秒杀原子操作（P0-3 修复）
      * 将"重复秒杀判断 + 库存预减"合并为一个原子操作，
      * 避免两步分离导致的竞态条件（中间崩溃会造成少卖）
+     * 受理成功时在同一次调用内发放排队号，供排队进度查询使用；
+     * 扣减到 0 时在脚本内广播售罄，各节点立即置位内存标记（见 StockOverFlags）
      *
-     * KEYS[1]: 库存key (seckill:stock:{seckillGoodsId})
-     * KEYS[2]: 订单标记key (seckill:order:{userId}:{goodsId})
+     * KEYS[1]: 库存key (seckill:{seckillGoodsId}:stock)
+     * KEYS[2]: 订单标记key (seckill:{goodsId}:order:{userId})
+     * KEYS[3]: 排队号key (seckill:{seckillGoodsId}:ticket)
+     * KEYS[4]: 可选，令牌 nonce key (seckill:{goodsId}:nonce:{nonce})，仅 hmac 路径模式传入
      * ARGV[1]: 订单标记TTL (秒)
-     * 返回: 1-成功 0-库存不足 -1-重复秒杀
+     * ARGV[2]: 订单标记值 (hmac 路径模式下为令牌 nonce)
+     * ARGV[3]: 秒杀商品ID (用于售罄广播)
+     * ARGV[4]: 可选，nonce 保留时长 (秒，不短于令牌有效期)
+     * hmac 路径模式下受理成功时记录 nonce，订单标记被清除（失败补偿、取消订单）后同一令牌也不能再次受理
+     * 返回: {结果, 剩余库存}  结果 >0-成功(排队号) 0-库存不足 -1-重复秒杀
      */
     @Bean
-    public DefaultRedisScript<Long> seckillScript() {
-        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+    @SuppressWarnings("rawtypes")
+    public DefaultRedisScript<List> seckillScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
         script.setScriptText(
-                "-- 1. 检查是否重复秒杀\n" +
+                "-- 1. 检查是否重复秒杀、令牌是否已使用\n" +
                         "if redis.call('exists', KEYS[2]) == 1 then\n" +
-                        "    return -1\n" +
+                        "    return {-1, 0}\n" +
+                        "end\n" +
+                        "if KEYS[4] and redis.call('exists', KEYS[4]) == 1 then\n" +
+                        "    return {-1, 0}\n" +
                         "end\n" +
                         "-- 2. 检查并扣减库存\n" +
                         "local stock = redis.call('get', KEYS[1])\n" +
                         "if stock and tonumber(stock) > 0 then\n" +
-                        "    redis.call('decr', KEYS[1])\n" +
-                        "    redis.call('setex', KEYS[2], ARGV[1], '1')\n" +
-                        "    return 1\n" +
+                        "    local remaining = redis.call('decr', KEYS[1])\n" +
+                        "    redis.call('setex', KEYS[2], ARGV[1], ARGV[2])\n" +
+                        "    if KEYS[4] then\n" +
+                        "        redis.call('set', KEYS[4], '1', 'EX', ARGV[4])\n" +
+                        "    end\n" +
+                        "    -- 3. 最后一件被受理，广播售罄\n" +
+                        "    if remaining == 0 then\n" +
+                        "        redis.call('publish', '" + StockOverFlags.STOCK_CHANNEL + "', ARGV[3] .. ':1')\n" +
+                        "    end\n" +
+                        "    return {redis.call('incr', KEYS[3]), remaining}\n" +
+                        "end\n" +
+                        "return {0, 0}");
+        script.setResultType(List.class);
+        return script;
+    }
+
+    /**
+     * Redis Lua 脚本 - 秒杀原子操作（紧凑存储模式，seckill.storage.mode=compact）
+     * 与 seckillScript 逻辑相同，订单标记改为按商品一个位图（偏移量即 userId），
+     * 活动结束后整个位图统一过期，不再为每个用户生成一个带 TTL 的 key
+     *
+     * KEYS[1]: 库存key (seckill:{seckillGoodsId}:stock)
+     * KEYS[2]: 购买者位图key (seckill:{seckillGoodsId}:buyers)
+     * KEYS[3]: 排队号key (seckill:{seckillGoodsId}:ticket)
+     * KEYS[4]: 可选，令牌 nonce key (seckill:{goodsId}:nonce:{nonce})，仅 hmac 路径模式传入
+     * ARGV[1]: 位图过期时刻 (Unix 秒，活动结束时间 + 保留期)
+     * ARGV[2]: 用户ID (位图偏移量)
+     * ARGV[3]: 秒杀商品ID (用于售罄广播)
+     * ARGV[4]: 可选，nonce 保留时长 (秒，不短于令牌有效期)
+     * 返回: {结果, 剩余库存}  结果 >0-成功(排队号) 0-库存不足 -1-重复秒杀
+     */
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public DefaultRedisScript<List> seckillCompactScript() {
+        DefaultRedisScript<List> script = new DefaultRedisScript<>();
+        script.setScriptText(
+                "-- 1. 检查是否重复秒杀、令牌是否已使用\n" +
+                        "if redis.call('getbit', KEYS[2], ARGV[2]) == 1 then\n" +
+                        "    return {-1, 0}\n" +
+                        "end\n" +
+                        "if KEYS[4] and redis.call('exists', KEYS[4]) == 1 then\n" +
+                        "    return {-1, 0}\n" +
+                        "end\n" +
+                        "-- 2. 检查并扣减库存\n" +
+                        "local stock = redis.call('get', KEYS[1])\n" +
+                        "if stock and tonumber(stock) > 0 then\n" +
+                        "    local remaining = redis.call('decr', KEYS[1])\n" +
+                        "    redis.call('setbit', KEYS[2], ARGV[2], 1)\n" +
+                        "    redis.call('expireat', KEYS[2], ARGV[1])\n" +
+                        "    if KEYS[4] then\n" +
+                        "        redis.call('set', KEYS[4], '1', 'EX', ARGV[4])\n" +
+                        "    end\n" +
+                        "    -- 3. 最后一件被受理，广播售罄\n" +
+                        "    if remaining == 0 then\n" +
+                        "        redis.call('publish', '" + StockOverFlags.STOCK_CHANNEL + "', ARGV[3] .. ':1')\n" +
+                        "    end\n" +
+                        "    return {redis.call('incr', KEYS[3]), remaining}\n" +
+                        "end\n" +
+                        "return {0, 0}");
+        script.setResultType(List.class);
+        return script;
+    }
+
+    /**
+     * Redis Lua 脚本 - 库存对账修复（比较并设置）
+     * 只有在库存、排队号、处理水位都仍等于对账快照时才覆盖库存，
+     * 快照之后有任何新的扣减、受理或消费都会使修复放弃，不会覆盖实时扣减
+     *
+     * KEYS[1]: 库存key (seckill:{seckillGoodsId}:stock)
+     * KEYS[2]: 排队号key (seckill:{seckillGoodsId}:ticket)
+     * KEYS[3]: 处理水位key (seckill:{seckillGoodsId}:done)
+     * ARGV[1]: 快照中的库存
+     * ARGV[2]: 快照中的排队号
+     * ARGV[3]: 快照中的处理水位
+     * ARGV[4]: 修复后的库存
+     * 返回: 1-已修复 0-状态已变化，放弃修复
+     */
+    @Bean
+    public DefaultRedisScript<Long> stockRepairScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(
+                "local stock = redis.call('get', KEYS[1])\n" +
+                        "if not stock or tonumber(stock) ~= tonumber(ARGV[1]) then\n" +
+                        "    return 0\n" +
+                        "end\n" +
+                        "if tonumber(redis.call('get', KEYS[2]) or '0') ~= tonumber(ARGV[2])\n" +
+                        "        or tonumber(redis.call('get', KEYS[3]) or '0') ~= tonumber(ARGV[3]) then\n" +
+                        "    return 0\n" +
+                        "end\n" +
+                        "redis.call('set', KEYS[1], ARGV[4])\n" +
+                        "return 1");
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * Redis Lua 脚本 - 登记已消费的秒杀消息（SADD + EXPIRE 一次往返）
+     * 集合按商品分片，每次登记顺延过期时间，活动结束后整体过期
+     *
+     * KEYS[1]: 已消费集合key (seckill:{seckillGoodsId}:consumed)
+     * ARGV[1]: 请求ID
+     * ARGV[2]: 过期时间(秒)
+     * 返回: 1-首次登记 0-已登记过
+     */
+    @Bean
+    public DefaultRedisScript<Long> consumedMarkScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(
+                "local added = redis.call('sadd', KEYS[1], ARGV[1])\n" +
+                        "redis.call('expire', KEYS[1], ARGV[2])\n" +
+                        "return added");
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * Redis Lua 脚本 - 订单号 workerId 租约续期
+     * 只有租约仍属于本节点时才续期，同时记录本节点的发号时间上限，供下一个持有者接续
+     *
+     * KEYS[1]: 租约key (seckill:worker:{workerId})
+     * KEYS[2]: 时间戳key (seckill:worker:{workerId}:ts)
+     * ARGV[1]: 本节点租约令牌
+     * ARGV[2]: 租约时长 (秒)
+     * ARGV[3]: 发号时间上限 (本地租约有效期截止时间)
+     * 返回: 1-续期成功 0-租约已丢失
+     */
+    @Bean
+    public DefaultRedisScript<Long> workerLeaseRenewScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(
+                "if redis.call('get', KEYS[1]) ~= ARGV[1] then\n" +
+                        "    return 0\n" +
                         "end\n" +
-                        "return 0");
+                        "redis.call('expire', KEYS[1], ARGV[2])\n" +
+                        "redis.call('set', KEYS[2], ARGV[3])\n" +
+                        "return 1");
+        script.setResultType(Long.class);
+        return script;
+    }
+
+    /**
+     * Redis Lua 脚本 - 订单号 workerId 租约释放（节点正常停机时调用）
+     *
+     * KEYS[1]: 租约key (seckill:worker:{workerId})
+     * KEYS[2]: 时间戳key (seckill:worker:{workerId}:ts)
+     * ARGV[1]: 本节点租约令牌
+     * ARGV[2]: 已发号的最大时间戳
+     * 返回: 1-已释放 0-租约不属于本节点
+     */
+    @Bean
+    public DefaultRedisScript<Long> workerLeaseReleaseScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(
+                "if redis.call('get', KEYS[1]) ~= ARGV[1] then\n" +
+                        "    return 0\n" +
+                        "end\n" +
+                        "redis.call('set', KEYS[2], ARGV[2])\n" +
+                        "return redis.call('del', KEYS[1])");
         script.setResultType(Long.class);
         return script;
     }
@@ -98,4 +312,35 @@ public class RedisConfig {
         script.setResultType(Long.class);
         return script;
     }
+
+    /**
+     * Redis Lua 脚本 - 验证码校验 + 铸造秒杀路径（单次往返）
+     * 将原来的 GET 验证码 → DEL 验证码 → SET 路径 三次往返合并为一次原子调用，
+     * 同时消除并发请求在 DEL 之前都读到答案的重放窗口
+     *
+     * KEYS[1]: 验证码key (seckill:{goodsId}:captcha:{userId})
+     * KEYS[2]: 路径key (seckill:{goodsId}:path:{userId})
+     * ARGV[1]: 用户输入的答案
+     * ARGV[2]: 待写入的秒杀路径
+     * ARGV[3]: 路径TTL (秒)
+     * 返回: 1-校验通过且路径已写入 0-验证码不存在或已过期 -1-答案错误
+     */
+    @Bean
+    public DefaultRedisScript<Long> captchaPathScript() {
+        DefaultRedisScript<Long> script = new DefaultRedisScript<>();
+        script.setScriptText(
+                "local stored = redis.call('get', KEYS[1])\n" +
+                        "if not stored then\n" +
+                        "    return 0\n" +
+                        "end\n" +
+                        "-- 用后即删，无论答案对错\n" +
+                        "redis.call('del', KEYS[1])\n" +
+                        "if tonumber(stored) ~= tonumber(ARGV[1]) then\n" +
+                        "    return -1\n" +
+                        "end\n" +
+                        "redis.call('setex', KEYS[2], ARGV[3], ARGV[2])\n" +
+                        "return 1");
+        script.setResultType(Long.class);
+        return script;
+    }
 }
@@ -0,0 +1,89 @@
+package com.seckill.config;
+
+import com.seckill.metrics.SeckillMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.util.List;
+
+/**
+ * 只读副本复制延迟监控
+ *
+ * <p>
+ * 定时在副本上执行 SHOW REPLICA STATUS 读取 Seconds_Behind_Source，
+ * 延迟超过 max-lag-seconds、复制中断（为 NULL）或副本不可达时标记为不可用，所有读请求回到主库，
+ * 恢复后自动切回。lag-check=false 时只做连通性检查（适用于无 REPLICATION CLIENT 权限的账号或 H2 等本地实例）。
+ * </p>
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final String SHOW_REPLICA_STATUS = "SHOW REPLICA STATUS";
+    private static final String LAG_COLUMN = "Seconds_Behind_Source";
+
+    private final JdbcTemplate replicaJdbc;
+    private final SeckillMetrics seckillMetrics;
+    private final boolean lagCheck;
+    private final long maxLagSeconds;
+
+    /** 首次检查通过前不使用副本 */
+    private volatile boolean usable;
+
+    public ReplicaLagMonitor(DataSource replica, SeckillMetrics seckillMetrics, boolean lagCheck, long maxLagSeconds) {
+        this.replicaJdbc = new JdbcTemplate(replica);
+        this.seckillMetrics = seckillMetrics;
+        this.lagCheck = lagCheck;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    /**
+     * 副本当前是否可用于读
+     */
+    public boolean isUsable() {
+        return usable;
+    }
+
+    /**
+     * 副本查询出错时立即停用，等下一次检查恢复
+     */
+    public void markUnusable(String reason) {
+        update(false, -1, reason);
+    }
+
+    @Scheduled(fixedDelayString = "${seckill.datasource.replica.check-interval-ms:1000}")
+    public void check() {
+        try {
+            if (!lagCheck) {
+                replicaJdbc.queryForObject("SELECT 1", Integer.class);
+                update(true, 0, null);
+                return;
+            }
+            List<Long> lags = replicaJdbc.query(SHOW_REPLICA_STATUS, (rs, i) -> {
+                Object value = rs.getObject(LAG_COLUMN);
+                return value != null ? ((Number) value).longValue() : null;
+            });
+            Long lag = lags.isEmpty() ? null : lags.get(0);
+            if (lag == null) {
+                update(false, -1, lags.isEmpty() ? "不是副本实例" : "复制未运行");
+            } else {
+                update(lag <= maxLagSeconds, lag, "复制延迟 " + lag + "s");
+            }
+        } catch (Exception e) {
+            update(false, -1, e.getMessage());
+        }
+    }
+
+    private void update(boolean nowUsable, long lagSeconds, String reason) {
+        seckillMetrics.recordReplicaLag(lagSeconds);
+        if (nowUsable != usable) {
+            usable = nowUsable;
+            if (nowUsable) {
+                log.info("[读写分离] 只读副本已可用, 读请求切回副本");
+            } else {
+                log.warn("[读写分离] 只读副本不可用, 读请求回退主库: {}", reason);
+            }
+        }
+    }
+}
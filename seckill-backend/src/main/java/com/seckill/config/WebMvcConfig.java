@@ -1,9 +1,14 @@
 package com.seckill.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.seckill.interceptor.AdminInterceptor;
+import com.seckill.interceptor.BulkheadInterceptor;
+import com.seckill.interceptor.GoodsIdInterceptor;
 import com.seckill.interceptor.JwtInterceptor;
 import com.seckill.interceptor.RateLimitInterceptor;
+import com.seckill.metrics.SeckillMetrics;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.lang.NonNull;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
@@ -20,6 +25,30 @@ public class WebMvcConfig implements WebMvcConfigurer {
     private final JwtInterceptor jwtInterceptor;
     private final AdminInterceptor adminInterceptor;
     private final RateLimitInterceptor rateLimitInterceptor;
+    private final GoodsIdInterceptor goodsIdInterceptor;
+    private final ObjectMapper objectMapper;
+    private final SeckillMetrics seckillMetrics;
+
+    /** 是否启用接口组舱壁 */
+    @Value("${seckill.bulkhead.enabled:true}")
+    private boolean bulkheadEnabled;
+
+    /** 舱壁已满时的等待时长(毫秒)，0 表示立即拒绝 */
+    @Value("${seckill.bulkhead.max-wait-ms:0}")
+    private long bulkheadMaxWaitMillis;
+
+    /** 各接口组最大并发（合计不超过 Tomcat 工作线程数 server.tomcat.threads.max，默认 200） */
+    @Value("${seckill.bulkhead.seckill:120}")
+    private int seckillConcurrency;
+
+    @Value("${seckill.bulkhead.goods:40}")
+    private int goodsConcurrency;
+
+    @Value("${seckill.bulkhead.order:30}")
+    private int orderConcurrency;
+
+    @Value("${seckill.bulkhead.admin:10}")
+    private int adminConcurrency;
 
     @Override
     public void addCorsMappings(@NonNull CorsRegistry registry) {
@@ -27,12 +56,25 @@ public class WebMvcConfig implements WebMvcConfigurer {
                 .allowedOriginPatterns("*")
                 .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
                 .allowedHeaders("*")
+                .exposedHeaders("X-Poll-Interval")
                 .allowCredentials(true)
                 .maxAge(3600);
     }
 
     @Override
     public void addInterceptors(@NonNull InterceptorRegistry registry) {
+        // -1. 接口组舱壁（最先执行，被拒绝的请求不访问 Redis 和 MySQL）
+        if (bulkheadEnabled) {
+            registry.addInterceptor(bulkhead("seckill", seckillConcurrency)).addPathPatterns("/seckill/**");
+            registry.addInterceptor(bulkhead("goods", goodsConcurrency)).addPathPatterns("/goods/**");
+            registry.addInterceptor(bulkhead("order", orderConcurrency)).addPathPatterns("/order/**");
+            registry.addInterceptor(bulkhead("admin", adminConcurrency)).addPathPatterns("/admin/**");
+        }
+
+        // 0. 商品ID前置校验（进程内位图，未知ID不访问 Redis 和 MySQL）
+        registry.addInterceptor(goodsIdInterceptor)
+                .addPathPatterns("/**");
+
         // 1. JWT认证拦截器
         registry.addInterceptor(jwtInterceptor)
                 .addPathPatterns("/**")
@@ -46,6 +88,7 @@ public class WebMvcConfig implements WebMvcConfigurer {
                         "/v3/api-docs/**",
                         "/webjars/**",
                         "/favicon.ico",
+                        "/actuator/**",
                         "/error");
 
         // 2. 管理员权限拦截器（在JWT之后执行）
@@ -56,4 +99,8 @@ public class WebMvcConfig implements WebMvcConfigurer {
         registry.addInterceptor(rateLimitInterceptor)
                 .addPathPatterns("/**");
     }
+
+    private BulkheadInterceptor bulkhead(String group, int maxConcurrent) {
+        return new BulkheadInterceptor(group, maxConcurrent, bulkheadMaxWaitMillis, objectMapper, seckillMetrics);
+    }
 }
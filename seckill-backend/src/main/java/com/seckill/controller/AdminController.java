@@ -1,17 +1,26 @@
 package com.seckill.controller;
 
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.seckill.common.Result;
+import com.seckill.common.SeckillKeys;
 import com.seckill.entity.OrderInfo;
 import com.seckill.entity.SeckillGoods;
 import com.seckill.mapper.SeckillGoodsMapper;
 import com.seckill.service.GoodsService;
+import com.seckill.service.InventoryReconciler;
+import com.seckill.service.SeckillWarmupService;
+import com.seckill.service.OrderReshardService;
 import com.seckill.service.OrderService;
+import com.seckill.service.ReplicaReads;
+import com.seckill.service.UserService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggerConfiguration;
+import org.springframework.boot.logging.LoggingSystem;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
 import jakarta.validation.Valid;
@@ -37,18 +46,25 @@ public class AdminController {
     private final SeckillGoodsMapper seckillGoodsMapper;
     private final GoodsService goodsService;
     private final OrderService orderService;
+    private final OrderReshardService orderReshardService;
     private final SeckillService seckillService;
+    private final InventoryReconciler inventoryReconciler;
+    private final SeckillWarmupService warmupService;
+    private final ReplicaReads replicaReads;
+    private final UserService userService;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final LoggingSystem loggingSystem;
 
-    private static final String STOCK_KEY = "seckill:stock:";
+    /** MyBatis 以 Mapper 全限定名作为 logger，SQL 语句在 DEBUG 级别输出 */
+    private static final String SQL_LOGGER = "com.seckill.mapper";
 
     @Operation(summary = "系统仪表盘数据")
     @GetMapping("/dashboard")
     public Result<Map<String, Object>> getDashboard() {
         Map<String, Object> dashboard = new LinkedHashMap<>();
 
-        // 商品统计
-        List<SeckillGoods> allSeckillGoods = seckillGoodsMapper.selectList(null);
+        // 商品统计（统计类查询走只读副本，不与秒杀消费争抢主库连接）
+        List<SeckillGoods> allSeckillGoods = replicaReads.read(() -> seckillGoodsMapper.selectList(null));
         int totalGoods = allSeckillGoods.size();
         LocalDateTime now = LocalDateTime.now();
         long activeGoods = allSeckillGoods.stream()
@@ -66,16 +82,14 @@ public class AdminController {
         dashboard.put("goods", goodsStats);
 
         // 订单统计
-        long totalOrders = orderService.count();
-        long unpaidOrders = orderService.count(new LambdaQueryWrapper<OrderInfo>().eq(OrderInfo::getStatus, 0));
-        long paidOrders = orderService.count(new LambdaQueryWrapper<OrderInfo>().eq(OrderInfo::getStatus, 1));
-        long cancelledOrders = orderService.count(new LambdaQueryWrapper<OrderInfo>().eq(OrderInfo::getStatus, 4));
-
-        Map<String, Object> orderStats = new LinkedHashMap<>();
-        orderStats.put("total", totalOrders);
-        orderStats.put("unpaid", unpaidOrders);
-        orderStats.put("paid", paidOrders);
-        orderStats.put("cancelled", cancelledOrders);
+        Map<String, Object> orderStats = replicaReads.read(() -> {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("total", orderService.countAllOrders(null));
+            stats.put("unpaid", orderService.countAllOrders(0));
+            stats.put("paid", orderService.countAllOrders(1));
+            stats.put("cancelled", orderService.countAllOrders(4));
+            return stats;
+        });
         dashboard.put("orders", orderStats);
 
         // 各商品库存详情（含Redis实时库存）
@@ -85,8 +99,15 @@ public class AdminController {
             item.put("seckillGoodsId", sg.getId());
             item.put("goodsName", sg.getGoodsName() != null ? sg.getGoodsName() : "未知");
             item.put("dbStock", sg.getStockCount());
-            Object redisStock = redisTemplate.opsForValue().get(STOCK_KEY + sg.getId());
+            Object redisStock = redisTemplate.opsForValue().get(SeckillKeys.stock(sg.getId()));
             item.put("redisStock", redisStock != null ? Integer.parseInt(redisStock.toString()) : 0);
+            // 对账视角：期望库存 = DB库存 - 在途请求，偏差不为 0 才是真正的不一致
+            InventoryReconciler.StockSnapshot snapshot = inventoryReconciler.inspect(sg.getId(), sg.getStockCount());
+            item.put("inFlight", snapshot != null ? snapshot.inFlight() : 0);
+            item.put("expectedStock", snapshot != null ? snapshot.expectedStock() : null);
+            item.put("drift", snapshot != null ? snapshot.drift() : 0);
+            item.put("liveOrders", inventoryReconciler.countLiveOrders(sg.getId()));
+            item.put("warmup", warmupService.getProgress(sg.getId()));
             item.put("seckillPrice", sg.getSeckillPrice());
             item.put("startDate", sg.getStartDate());
             item.put("endDate", sg.getEndDate());
@@ -118,15 +139,26 @@ public class AdminController {
     @GetMapping("/orders")
     public Result<List<OrderInfo>> getAllOrders(
             @RequestParam(required = false) Integer status) {
-        LambdaQueryWrapper<OrderInfo> wrapper = new LambdaQueryWrapper<OrderInfo>()
-                .orderByDesc(OrderInfo::getCreateTime);
-        if (status != null && status >= 0) {
-            wrapper.eq(OrderInfo::getStatus, status);
-        }
-        List<OrderInfo> orders = orderService.list(wrapper);
+        List<OrderInfo> orders = replicaReads.read(() -> orderService.listAllOrders(status));
         return Result.success(orders);
     }
 
+    @Operation(summary = "提交订单重新分表任务(当前节点执行)")
+    @PostMapping("/orders/reshard")
+    public Result<Map<String, Object>> reshardOrders(
+            @RequestParam int from,
+            @RequestParam int to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime since) {
+        orderReshardService.start(from, to, since);
+        return Result.success("任务已提交", orderReshardService.getStatus());
+    }
+
+    @Operation(summary = "查询订单重新分表进度(当前节点)")
+    @GetMapping("/orders/reshard")
+    public Result<Map<String, Object>> getReshardStatus() {
+        return Result.success(orderReshardService.getStatus());
+    }
+
     @Operation(summary = "添加秒杀商品")
     @PostMapping("/goods")
     public Result<Void> addSeckillGoods(@Valid @RequestBody com.seckill.dto.SeckillGoodsDTO dto) {
@@ -149,4 +181,39 @@ public class AdminController {
         goodsService.deleteSeckillGoods(seckillGoodsId);
         return Result.success("删除成功", null);
     }
+
+    @Operation(summary = "启用/禁用用户")
+    @PutMapping("/users/{userId}/status")
+    public Result<Void> updateUserStatus(@PathVariable Long userId, @RequestParam int status) {
+        userService.updateStatus(userId, status);
+        return Result.success("更新成功", null);
+    }
+
+    @Operation(summary = "失效用户身份缓存(直接改库后调用)")
+    @PostMapping("/users/{userId}/identity/evict")
+    public Result<Void> evictUserIdentity(@PathVariable Long userId) {
+        userService.evictIdentity(userId);
+        return Result.success("已失效", null);
+    }
+
+    @Operation(summary = "查询SQL日志开关(当前节点)")
+    @GetMapping("/logging/sql")
+    public Result<Map<String, Object>> getSqlLogging() {
+        LoggerConfiguration config = loggingSystem.getLoggerConfiguration(SQL_LOGGER);
+        LogLevel level = config != null ? config.getEffectiveLevel() : null;
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("logger", SQL_LOGGER);
+        status.put("level", level);
+        status.put("enabled", level == LogLevel.DEBUG || level == LogLevel.TRACE);
+        return Result.success(status);
+    }
+
+    @Operation(summary = "运行时开关SQL日志(当前节点)")
+    @PutMapping("/logging/sql")
+    public Result<Void> setSqlLogging(@RequestParam boolean enabled) {
+        // 关闭时置为 null，恢复继承 com.seckill 的级别
+        loggingSystem.setLogLevel(SQL_LOGGER, enabled ? LogLevel.DEBUG : null);
+        log.info("SQL日志已{}", enabled ? "开启" : "关闭");
+        return Result.success(enabled ? "SQL日志已开启" : "SQL日志已关闭", null);
+    }
 }
@@ -1,5 +1,6 @@
 package com.seckill.controller;
 
+import com.seckill.annotation.GoodsIdCheck;
 import com.seckill.common.Result;
 import com.seckill.service.GoodsService;
 import com.seckill.vo.SeckillGoodsVo;
@@ -30,6 +31,7 @@ public class GoodsController {
 
     @Operation(summary = "获取秒杀商品详情")
     @GetMapping("/detail/{seckillGoodsId}")
+    @GoodsIdCheck
     public Result<SeckillGoodsVo> getSeckillGoodsDetail(@PathVariable Long seckillGoodsId) {
         SeckillGoodsVo vo = goodsService.getSeckillGoodsDetail(seckillGoodsId);
         return Result.success(vo);
@@ -1,14 +1,22 @@
 package com.seckill.controller;
 
+import com.seckill.annotation.GoodsIdCheck;
 import com.seckill.annotation.RateLimit;
 import com.seckill.common.Result;
 import com.seckill.common.ResultCode;
+import com.seckill.metrics.SeckillMetrics;
+import com.seckill.service.SeckillQueueService;
+import com.seckill.service.SeckillResultPushService;
 import com.seckill.service.SeckillService;
 import com.seckill.utils.UserContext;
+import com.seckill.vo.QueueStatusVo;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.Map;
 
@@ -27,9 +35,16 @@ import java.util.Map;
 public class SeckillController {
 
     private final SeckillService seckillService;
+    private final SeckillMetrics seckillMetrics;
+    private final SeckillResultPushService resultPushService;
+    private final SeckillQueueService queueService;
+
+    /** 降级轮询时服务端建议的轮询间隔(毫秒) */
+    private static final String POLL_INTERVAL_HEADER = "X-Poll-Interval";
 
     @Operation(summary = "获取秒杀路径(验证码通过后)")
     @GetMapping("/path/{seckillGoodsId}")
+    @GoodsIdCheck(active = true)
     @RateLimit(seconds = 5, maxCount = 5)
     public Result<Map<String, String>> getSeckillPath(
             @PathVariable Long seckillGoodsId,
@@ -41,28 +56,61 @@ public class SeckillController {
 
     @Operation(summary = "执行秒杀(需动态path)")
     @PostMapping("/{path}/do/{seckillGoodsId}")
+    @GoodsIdCheck(active = true)
     @RateLimit(seconds = 5, maxCount = 3)
-    public Result<Void> doSeckill(
+    public Result<Map<String, Long>> doSeckill(
             @PathVariable String path,
             @PathVariable Long seckillGoodsId) {
         Long userId = UserContext.getCurrentUserId();
 
         // 验证秒杀路径
+        long start = System.nanoTime();
         boolean validPath = seckillService.validateSeckillPath(userId, seckillGoodsId, path);
+        seckillMetrics.record(SeckillMetrics.Stage.PATH_CHECK, start);
         if (!validPath) {
             return Result.error(ResultCode.SECKILL_PATH_INVALID);
         }
 
-        seckillService.doSeckill(userId, seckillGoodsId);
-        return Result.success("秒杀请求已提交，请等待结果", null);
+        Long ticket = seckillService.doSeckill(userId, seckillGoodsId, path);
+        return Result.success("秒杀请求已提交，请等待结果", Map.of("ticket", ticket));
+    }
+
+    @Operation(summary = "查询排队进度(前方人数与预计等待时间)")
+    @GetMapping("/queue/{seckillGoodsId}")
+    @GoodsIdCheck
+    public Result<QueueStatusVo> getQueueStatus(
+            @PathVariable Long seckillGoodsId,
+            @RequestParam Long ticket) {
+        return Result.success(queueService.getQueueStatus(seckillGoodsId, ticket));
+    }
+
+    @Operation(summary = "订阅秒杀结果(SSE推送)")
+    @GetMapping(value = "/result/stream/{seckillGoodsId}", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @GoodsIdCheck
+    public SseEmitter streamResult(@PathVariable Long seckillGoodsId) {
+        Long userId = UserContext.getCurrentUserId();
+        SseEmitter emitter = resultPushService.subscribe(userId, seckillGoodsId);
+        // 先登记连接再查一次结果：订阅前已经出结果的直接推送，避免错过广播
+        Long result = seckillService.getResult(userId, seckillGoodsId);
+        if (result != 0L) {
+            resultPushService.deliver(userId, seckillGoodsId, result);
+        }
+        return emitter;
     }
 
-    @Operation(summary = "查询秒杀结果")
+    @Operation(summary = "查询秒杀结果(轮询降级)")
     @GetMapping("/result/{seckillGoodsId}")
-    public Result<Long> getResult(@PathVariable Long seckillGoodsId) {
+    @GoodsIdCheck
+    public Result<Long> getResult(
+            @PathVariable Long seckillGoodsId,
+            @RequestParam(required = false) Long ticket,
+            HttpServletResponse response) {
         Long userId = UserContext.getCurrentUserId();
         Long result = seckillService.getResult(userId, seckillGoodsId);
         if (result == 0L) {
+            // 携带排队号时按预计等待时间退避，否则使用默认间隔
+            response.setHeader(POLL_INTERVAL_HEADER,
+                    String.valueOf(queueService.suggestPollInterval(seckillGoodsId, ticket)));
             return Result.error(ResultCode.SECKILL_QUEUING);
         } else if (result < 0) {
             return Result.error(ResultCode.SECKILL_STOCK_EMPTY);
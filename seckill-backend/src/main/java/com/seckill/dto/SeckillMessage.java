@@ -13,4 +13,16 @@ public class SeckillMessage {
 
     /** 秒杀商品ID */
     private Long seckillGoodsId;
+
+    /** 请求ID（doSeckill 生成，贯穿入队、消费、落库的关联ID，同时作为消费端幂等键） */
+    private String requestId;
+
+    /** 受理时间（毫秒时间戳），用于计算排队耗时和端到端耗时 */
+    private Long acceptTime;
+
+    /** 排队号（Lua 受理时发放），仅用于排队进度展示 */
+    private Long ticket;
+
+    /** 订单号（doSeckill 受理时分配，消费端按此落库；重投的消息订单号不变） */
+    private Long orderId;
 }
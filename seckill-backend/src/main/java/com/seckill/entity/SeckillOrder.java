@@ -13,7 +13,8 @@ import java.time.LocalDateTime;
 @TableName("t_seckill_order")
 public class SeckillOrder implements Serializable {
 
-    @TableId(type = IdType.AUTO)
+    /** 应用分配的时间有序ID（OrderIdGenerator），不再依赖数据库自增 */
+    @TableId(type = IdType.ASSIGN_ID)
     private Long id;
 
     /** 用户ID */
@@ -25,10 +25,11 @@ public class GlobalExceptionHandler {
 
     /**
      * 处理业务异常
+     * 售罄、重复、限流等属于秒杀高峰的预期结果，逐条日志降为 DEBUG，由指标计数体现
      */
     @ExceptionHandler(BusinessException.class)
     public Result<Void> handleBusinessException(BusinessException e) {
-        log.warn("业务异常: code={}, message={}", e.getCode(), e.getMessage());
+        log.debug("业务异常: code={}, message={}", e.getCode(), e.getMessage());
         return Result.error(e.getCode(), e.getMessage());
     }
 
@@ -0,0 +1,91 @@
+package com.seckill.interceptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seckill.common.Result;
+import com.seckill.common.ResultCode;
+import com.seckill.metrics.SeckillMetrics;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 舱壁拦截器 - 限制一组接口同时占用的 Tomcat 工作线程数
+ *
+ * <p>
+ * 每个接口组（/seckill、/goods、/order、/admin）一个实例、一个信号量，由 WebMvcConfig 注册在最前面。
+ * 组内并发已满时等待 max-wait-ms（默认 0，立即拒绝）后返回 503 SERVICE_BUSY，
+ * 商品列表刷新风暴或重量级的仪表盘查询最多占满本组的份额，抢购接口始终有线程可用；
+ * 每个请求同一时间最多持有一个 Hikari / Lettuce 连接，组并发上限同时也是该组能占用的连接数上限。
+ * </p>
+ *
+ * 异步请求（SSE 结果推送）在进入异步处理时释放许可，长连接不占用舱壁。
+ */
+@Slf4j
+public class BulkheadInterceptor implements AsyncHandlerInterceptor {
+
+    private final String group;
+    private final Semaphore permits;
+    private final long maxWaitMillis;
+    private final ObjectMapper objectMapper;
+    private final SeckillMetrics seckillMetrics;
+    /** 请求属性：本请求持有的许可 */
+    private final String permitAttribute;
+
+    public BulkheadInterceptor(String group, int maxConcurrent, long maxWaitMillis,
+            ObjectMapper objectMapper, SeckillMetrics seckillMetrics) {
+        this.group = group;
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxWaitMillis = maxWaitMillis;
+        this.objectMapper = objectMapper;
+        this.seckillMetrics = seckillMetrics;
+        this.permitAttribute = BulkheadInterceptor.class.getName() + "." + group;
+        seckillMetrics.registerBulkhead(group, permits, maxConcurrent);
+    }
+
+    @Override
+    public boolean preHandle(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler) throws Exception {
+        // 异步分派回来的请求已在首次分派时检查过
+        if (request.getDispatcherType() == DispatcherType.ASYNC || "OPTIONS".equalsIgnoreCase(request.getMethod())) {
+            return true;
+        }
+        boolean acquired = maxWaitMillis > 0
+                ? permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS)
+                : permits.tryAcquire();
+        if (!acquired) {
+            seckillMetrics.countBulkheadRejected(group);
+            log.debug("舱壁已满, 拒绝请求: group={}, uri={}", group, request.getRequestURI());
+            response.setContentType("application/json;charset=UTF-8");
+            response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            response.getWriter().write(objectMapper.writeValueAsString(Result.error(ResultCode.SERVICE_BUSY)));
+            return false;
+        }
+        request.setAttribute(permitAttribute, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler) {
+        release(request);
+    }
+
+    @Override
+    public void afterCompletion(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response,
+            @NonNull Object handler, Exception ex) {
+        release(request);
+    }
+
+    private void release(HttpServletRequest request) {
+        if (request.getAttribute(permitAttribute) != null) {
+            request.removeAttribute(permitAttribute);
+            permits.release();
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.seckill.interceptor;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seckill.annotation.GoodsIdCheck;
+import com.seckill.common.Result;
+import com.seckill.common.ResultCode;
+import com.seckill.service.GoodsIdFilter;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * 商品ID前置校验拦截器
+ * 排在所有拦截器之前：未知或未在进行中的商品ID在 JWT、限流（均访问 Redis）之前就被拒绝
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GoodsIdInterceptor implements HandlerInterceptor {
+
+    private final GoodsIdFilter goodsIdFilter;
+    private final ObjectMapper objectMapper;
+
+    private static final String GOODS_ID_VARIABLE = "seckillGoodsId";
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean preHandle(@NonNull HttpServletRequest request,
+            @NonNull HttpServletResponse response,
+            @NonNull Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+
+        GoodsIdCheck check = handlerMethod.getMethodAnnotation(GoodsIdCheck.class);
+        if (check == null) {
+            return true;
+        }
+
+        Map<String, String> variables = (Map<String, String>) request.getAttribute(
+                HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        String raw = variables != null ? variables.get(GOODS_ID_VARIABLE) : null;
+        if (raw == null) {
+            return true;
+        }
+
+        Long seckillGoodsId;
+        try {
+            seckillGoodsId = Long.valueOf(raw);
+        } catch (NumberFormatException e) {
+            // 交给参数绑定返回 400
+            return true;
+        }
+
+        if (!goodsIdFilter.isListed(seckillGoodsId)) {
+            log.debug("拒绝未知商品ID: uri={}", request.getRequestURI());
+            writeError(response, ResultCode.GOODS_NOT_FOUND);
+            return false;
+        }
+        if (check.active() && !goodsIdFilter.isActive(seckillGoodsId)) {
+            writeError(response, ResultCode.SECKILL_NOT_ACTIVE);
+            return false;
+        }
+        return true;
+    }
+
+    private void writeError(HttpServletResponse response, ResultCode code) throws Exception {
+        response.setContentType("application/json;charset=UTF-8");
+        response.getWriter().write(objectMapper.writeValueAsString(Result.error(code)));
+    }
+}
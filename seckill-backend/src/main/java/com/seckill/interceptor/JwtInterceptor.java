@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.seckill.common.Result;
 import com.seckill.common.ResultCode;
 import com.seckill.entity.User;
+import com.seckill.metrics.SeckillMetrics;
 import com.seckill.utils.JwtUtils;
 import com.seckill.utils.UserContext;
 import jakarta.servlet.http.HttpServletRequest;
@@ -27,8 +28,9 @@ import java.io.PrintWriter;
 public class JwtInterceptor implements HandlerInterceptor {
 
     private final JwtUtils jwtUtils;
-    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisTemplate<String, Object> purchaseRedisTemplate;
     private final ObjectMapper objectMapper;
+    private final SeckillMetrics seckillMetrics;
 
     private static final String TOKEN_PREFIX = "Bearer ";
     private static final String REDIS_TOKEN_KEY = "seckill:user:token:";
@@ -36,6 +38,15 @@ public class JwtInterceptor implements HandlerInterceptor {
     @Override
     public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
             throws Exception {
+        long start = System.nanoTime();
+        try {
+            return authenticate(request, response);
+        } finally {
+            seckillMetrics.record(SeckillMetrics.Stage.AUTH, start);
+        }
+    }
+
+    private boolean authenticate(HttpServletRequest request, HttpServletResponse response) throws IOException {
         // 放行 OPTIONS 预检请求
         if ("OPTIONS".equalsIgnoreCase(request.getMethod())) {
             return true;
@@ -64,7 +75,7 @@ public class JwtInterceptor implements HandlerInterceptor {
             Integer role = jwtUtils.getRole(token);
 
             // 验证Redis中的Token是否一致 (支持踢人下线)
-            String redisToken = (String) redisTemplate.opsForValue().get(REDIS_TOKEN_KEY + userId);
+            String redisToken = (String) purchaseRedisTemplate.opsForValue().get(REDIS_TOKEN_KEY + userId);
             if (redisToken == null || !redisToken.equals(token)) {
                 writeError(response, ResultCode.USER_LOGIN_EXPIRED);
                 return false;
@@ -4,6 +4,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.seckill.annotation.RateLimit;
 import com.seckill.common.Result;
 import com.seckill.common.ResultCode;
+import com.seckill.metrics.SeckillMetrics;
+import com.seckill.utils.IpUtils;
 import com.seckill.utils.UserContext;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -26,9 +28,11 @@ import org.springframework.data.redis.core.script.DefaultRedisScript;
 @RequiredArgsConstructor
 public class RateLimitInterceptor implements HandlerInterceptor {
 
-    private final RedisTemplate<String, Object> redisTemplate;
+    /** 抢购链路专用连接（舱壁开启时为独立连接池） */
+    private final RedisTemplate<String, Object> purchaseRedisTemplate;
     private final ObjectMapper objectMapper;
     private final DefaultRedisScript<Long> rateLimitScript;
+    private final SeckillMetrics seckillMetrics;
 
     private static final String RATE_LIMIT_KEY = "rate_limit:";
 
@@ -54,21 +58,23 @@ public class RateLimitInterceptor implements HandlerInterceptor {
             }
             key = RATE_LIMIT_KEY + request.getRequestURI() + ":" + userId;
         } else {
-            String ip = getClientIp(request);
+            String ip = IpUtils.getClientIp(request);
             key = RATE_LIMIT_KEY + request.getRequestURI() + ":" + ip;
         }
 
         // 【P0-1 修复】使用 Lua 脚本原子计数+设置过期
-        Long count = redisTemplate.execute(
+        long start = System.nanoTime();
+        Long count = purchaseRedisTemplate.execute(
                 rateLimitScript,
                 Collections.singletonList(key),
                 (long) rateLimit.seconds());
+        seckillMetrics.record(SeckillMetrics.Stage.RATE_LIMIT, start);
         if (count == null) {
             return true;
         }
 
         if (count > rateLimit.maxCount()) {
-            log.warn("接口限流触发: key={}, count={}, limit={}", key, count, rateLimit.maxCount());
+            log.debug("接口限流触发: key={}, count={}, limit={}", key, count, rateLimit.maxCount());
             response.setContentType("application/json;charset=UTF-8");
             response.getWriter().write(
                     objectMapper.writeValueAsString(Result.error(ResultCode.SECKILL_LIMIT)));
@@ -77,19 +83,4 @@ public class RateLimitInterceptor implements HandlerInterceptor {
 
         return true;
     }
-
-    private String getClientIp(HttpServletRequest request) {
-        String ip = request.getHeader("X-Forwarded-For");
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getHeader("X-Real-IP");
-        }
-        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
-            ip = request.getRemoteAddr();
-        }
-        // 多级代理取第一个
-        if (ip != null && ip.contains(",")) {
-            ip = ip.split(",")[0].trim();
-        }
-        return ip;
-    }
 }
@@ -0,0 +1,46 @@
+package com.seckill.mapper;
+
+import com.seckill.entity.OrderInfo;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+
+/**
+ * 订单归档表 t_order_info_archive（只读查询，写入由 OrderArchiveService 批量搬迁）
+ */
+@Mapper
+public interface OrderArchiveMapper {
+
+        String COLUMNS = "id, user_id, goods_id, delivery_addr_id, goods_name, goods_count, goods_price, "
+                        + "status, pay_time, create_time, update_time, deleted";
+
+        /**
+         * 查询用户的某个归档订单
+         */
+        @Select("SELECT " + COLUMNS + " FROM t_order_info_archive WHERE id = #{orderId} AND user_id = #{userId}")
+        OrderInfo selectByUserAndId(@Param("userId") Long userId, @Param("orderId") Long orderId);
+
+        /**
+         * 查询用户的归档订单（status 为 null 时不过滤）
+         */
+        @Select("<script>SELECT " + COLUMNS + " FROM t_order_info_archive WHERE user_id = #{userId}"
+                        + "<if test='status != null'> AND status = #{status}</if>"
+                        + " ORDER BY create_time DESC</script>")
+        List<OrderInfo> selectByUser(@Param("userId") Long userId, @Param("status") Integer status);
+
+        /**
+         * 统计用户的归档订单数（status 为 null 时不过滤）
+         */
+        @Select("<script>SELECT COUNT(*) FROM t_order_info_archive WHERE user_id = #{userId}"
+                        + "<if test='status != null'> AND status = #{status}</if></script>")
+        long countByUser(@Param("userId") Long userId, @Param("status") Integer status);
+
+        /**
+         * 统计全部归档订单数（status 为 null 时不过滤）
+         */
+        @Select("<script>SELECT COUNT(*) FROM t_order_info_archive"
+                        + "<if test='status != null'> WHERE status = #{status}</if></script>")
+        long countAll(@Param("status") Integer status);
+}
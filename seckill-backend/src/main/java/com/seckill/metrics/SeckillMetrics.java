@@ -0,0 +1,243 @@
+package com.seckill.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 秒杀链路指标
+ *
+ * <p>
+ * 每个阶段一个 Timer（seckill.stage{stage=...}），同时发布 Prometheus 直方图桶和
+ * 客户端 HDR 百分位；端到端耗时 seckill.time.to.order 从 doSeckill 受理到结果写入。
+ * Timer 在启动时一次性注册，热路径上只有一次 nanoTime 和一次无锁记录。
+ * </p>
+ *
+ * <p>
+ * 每个请求的结果不再逐条打 INFO 日志，而是累加到计数器（seckill.outcome{outcome=...}），
+ * 并每分钟输出一行汇总日志。
+ * </p>
+ *
+ * <p>
+ * 库存对账：每个商品一个 seckill.stock.drift{goodsId} 仪表（Redis 库存 - 期望库存），
+ * 修复次数计入 seckill.stock.repair。
+ * </p>
+ */
+@Slf4j
+@Component
+public class SeckillMetrics {
+
+    private static final double[] PERCENTILES = { 0.5, 0.9, 0.99, 0.999 };
+
+    /**
+     * 秒杀链路阶段
+     */
+    public enum Stage {
+        /** JWT 校验 */
+        AUTH("auth"),
+        /** 接口限流 */
+        RATE_LIMIT("rate_limit"),
+        /** 秒杀路径校验 */
+        PATH_CHECK("path_check"),
+        /** Lua 去重 + 预减库存 */
+        LUA("lua"),
+        /** 投递 MQ */
+        PUBLISH("publish"),
+        /** 消息在队列中的等待时间 */
+        QUEUE_WAIT("queue_wait"),
+        /** 消费者处理一条消息的总耗时 */
+        CONSUME("consume"),
+        /** executeSeckill 事务（含提交） */
+        DB_TX("db_tx"),
+        /** 秒杀结果写入 Redis */
+        RESULT_WRITE("result_write");
+
+        private final String tag;
+
+        Stage(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    /**
+     * 秒杀请求/订单结果
+     */
+    public enum Outcome {
+        /** 请求受理并已入队 */
+        ACCEPTED("accepted"),
+        /** 售罄拒绝（内存标记或 Lua 返回库存不足） */
+        SOLD_OUT("sold_out"),
+        /** 重复秒杀拒绝 */
+        REPEAT("repeat"),
+        /** 入队失败已回滚 */
+        PUBLISH_FAILED("publish_failed"),
+        /** 消费端下单成功 */
+        ORDER_SUCCESS("order_success"),
+        /** 消费端下单失败（已回补库存） */
+        ORDER_FAIL("order_fail");
+
+        private final String tag;
+
+        Outcome(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private final Map<Stage, Timer> stageTimers = new EnumMap<>(Stage.class);
+    private final Timer timeToOrder;
+    private final Map<Outcome, Counter> outcomeCounters = new EnumMap<>(Outcome.class);
+    /** 汇总日志的窗口计数，每次输出后清零 */
+    private final Map<Outcome, LongAdder> windowCounters = new EnumMap<>(Outcome.class);
+    private final MeterRegistry registry;
+    /** 库存偏差仪表的当前值，按商品懒注册 */
+    private final Map<Long, AtomicLong> stockDrifts = new ConcurrentHashMap<>();
+    private final Counter stockRepairs;
+    /** 只读副本复制延迟(秒)，-1 表示不可用 */
+    private final AtomicLong replicaLag = new AtomicLong(-1);
+
+    public SeckillMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        for (Stage stage : Stage.values()) {
+            stageTimers.put(stage, Timer.builder("seckill.stage")
+                    .description("秒杀链路各阶段耗时")
+                    .tag("stage", stage.tag)
+                    .publishPercentiles(PERCENTILES)
+                    .publishPercentileHistogram()
+                    .register(registry));
+        }
+        this.timeToOrder = Timer.builder("seckill.time.to.order")
+                .description("从秒杀请求受理到结果可查询的端到端耗时")
+                .publishPercentiles(PERCENTILES)
+                .publishPercentileHistogram()
+                .register(registry);
+        for (Outcome outcome : Outcome.values()) {
+            outcomeCounters.put(outcome, Counter.builder("seckill.outcome")
+                    .description("秒杀请求与订单结果计数")
+                    .tag("outcome", outcome.tag)
+                    .register(registry));
+            windowCounters.put(outcome, new LongAdder());
+        }
+        this.stockRepairs = Counter.builder("seckill.stock.repair")
+                .description("库存对账修复次数")
+                .register(registry);
+        registry.gauge("seckill.db.replica.lag", replicaLag);
+    }
+
+    /**
+     * 记录一次请求/订单结果
+     */
+    public void count(Outcome outcome) {
+        outcomeCounters.get(outcome).increment();
+        windowCounters.get(outcome).increment();
+    }
+
+    /**
+     * 每分钟输出一行汇总日志（窗口内无流量时不输出）
+     */
+    @Scheduled(fixedRate = 60_000)
+    public void logSummary() {
+        Map<Outcome, Long> window = new EnumMap<>(Outcome.class);
+        long total = 0;
+        for (Outcome outcome : Outcome.values()) {
+            long value = windowCounters.get(outcome).sumThenReset();
+            window.put(outcome, value);
+            total += value;
+        }
+        if (total > 0) {
+            log.info("[秒杀汇总] 最近60秒 受理: {}, 售罄: {}, 重复: {}, 入队失败: {}, 下单成功: {}, 下单失败: {}",
+                    window.get(Outcome.ACCEPTED), window.get(Outcome.SOLD_OUT), window.get(Outcome.REPEAT),
+                    window.get(Outcome.PUBLISH_FAILED), window.get(Outcome.ORDER_SUCCESS),
+                    window.get(Outcome.ORDER_FAIL));
+        }
+    }
+
+    /**
+     * 记录阶段耗时
+     *
+     * @param startNanos 阶段开始时的 System.nanoTime()
+     */
+    public void record(Stage stage, long startNanos) {
+        stageTimers.get(stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * 记录阶段耗时（毫秒，跨进程的时间差只能用墙上时钟）
+     */
+    public void recordMillis(Stage stage, long millis) {
+        stageTimers.get(stage).record(Math.max(millis, 0), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 记录端到端耗时
+     *
+     * @param acceptTimeMillis doSeckill 受理请求时的墙上时间
+     */
+    public void recordTimeToOrder(long acceptTimeMillis) {
+        timeToOrder.record(Math.max(System.currentTimeMillis() - acceptTimeMillis, 0), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 更新商品库存偏差（Redis 库存 - 期望库存，正数有超卖拒单风险，负数为少卖）
+     */
+    public void recordStockDrift(Long seckillGoodsId, long drift) {
+        stockDrifts.computeIfAbsent(seckillGoodsId, id -> registry.gauge("seckill.stock.drift",
+                Tags.of("goodsId", String.valueOf(id)), new AtomicLong())).set(drift);
+    }
+
+    /**
+     * 记录一次库存对账修复
+     */
+    public void countStockRepair() {
+        stockRepairs.increment();
+    }
+
+    /**
+     * 更新只读副本复制延迟（秒，-1 表示不可用）
+     */
+    public void recordReplicaLag(long seconds) {
+        replicaLag.set(seconds);
+    }
+
+    /**
+     * 注册舱壁并发占用指标：seckill.bulkhead.active（当前占用）、seckill.bulkhead.limit（上限）
+     */
+    public void registerBulkhead(String group, Semaphore permits, int limit) {
+        Gauge.builder("seckill.bulkhead.active", permits, p -> limit - p.availablePermits())
+                .tag("group", group)
+                .description("舱壁当前占用的并发数")
+                .register(registry);
+        Gauge.builder("seckill.bulkhead.limit", () -> limit)
+                .tag("group", group)
+                .description("舱壁并发上限")
+                .register(registry);
+    }
+
+    /**
+     * 记录一次舱壁已满被拒绝的请求
+     */
+    public void countBulkheadRejected(String group) {
+        registry.counter("seckill.bulkhead.rejected", "group", group).increment();
+    }
+
+    /**
+     * 记录一次本应读副本、实际回退主库的查询
+     *
+     * @param reason unavailable-副本不可用 / error-副本查询出错 / miss-副本未查到 / pinned-用户刚写过
+     */
+    public void countReplicaFallback(String reason) {
+        registry.counter("seckill.db.replica.fallback", "reason", reason).increment();
+    }
+}
@@ -0,0 +1,78 @@
+package com.seckill.mq;
+
+import com.seckill.common.SeckillKeys;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+
+/**
+ * 秒杀消息幂等存储
+ *
+ * <p>
+ * 问题背景：手动 ACK 下，消费者处理完成但 ACK 未送达（连接断开、节点重启）时 RabbitMQ 会重投消息，
+ * 重投的消息再次进入 executeSeckill，命中"已有订单"分支后把成功结果覆盖为失败，并再次归还 Redis 库存，造成多受理。
+ * </p>
+ *
+ * <p>
+ * 方案：doSeckill 为每条消息生成唯一 requestId，消费者在处理结果确定（事务提交或失败补偿完成）后
+ * 将其登记到按商品分片的 Redis 集合 seckill:{goodsId}:consumed（纯字符串成员，带 TTL），
+ * 收到消息先 SISMEMBER，已登记的直接 ACK 丢弃，不访问 MySQL。
+ * 重投可能落到任意节点，因此不用本地布隆过滤器。
+ * </p>
+ *
+ * <p>
+ * 事务提交后、登记前节点宕机的极小窗口内消息仍会重投，此时 executeSeckill 查到的已有订单与消息携带的订单号相同，
+ * 按成功幂等处理（保留/恢复结果，不归还库存）；无订单号的旧消息仍由 uk_user_goods 唯一键兜底，
+ * 多归还的 Redis 库存由库存对账（InventoryReconciler）修复。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ConsumedMessageStore {
+
+    /** 成员为纯字符串的 UUID，不走 JSON 序列化 */
+    private final StringRedisTemplate stringRedisTemplate;
+    private final DefaultRedisScript<Long> consumedMarkScript;
+
+    /** 已消费记录保留时长(秒)，需覆盖消息可能被重投的最长时间 */
+    @Value("${seckill.consumer.dedup-ttl-seconds:86400}")
+    private long dedupTtlSeconds;
+
+    /**
+     * 消息是否已被处理过（无 requestId 的旧消息、Redis 异常时视为未处理，交给唯一键兜底）
+     */
+    public boolean isConsumed(Long seckillGoodsId, String requestId) {
+        if (requestId == null) {
+            return false;
+        }
+        try {
+            return Boolean.TRUE.equals(
+                    stringRedisTemplate.opsForSet().isMember(SeckillKeys.consumed(seckillGoodsId), requestId));
+        } catch (Exception e) {
+            log.warn("查询已消费消息失败: requestId={}, seckillGoodsId={}", requestId, seckillGoodsId);
+            return false;
+        }
+    }
+
+    /**
+     * 登记消息已处理完成；登记失败只记录日志，不影响本次消费结果
+     */
+    public void markConsumed(Long seckillGoodsId, String requestId) {
+        if (requestId == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.execute(consumedMarkScript,
+                    Collections.singletonList(SeckillKeys.consumed(seckillGoodsId)),
+                    requestId, String.valueOf(dedupTtlSeconds));
+        } catch (Exception e) {
+            log.warn("登记已消费消息失败: requestId={}, seckillGoodsId={}", requestId, seckillGoodsId);
+        }
+    }
+}
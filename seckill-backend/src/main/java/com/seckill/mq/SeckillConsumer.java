@@ -3,10 +3,14 @@ package com.seckill.mq;
 import com.rabbitmq.client.Channel;
 import com.seckill.config.RabbitMQConfig;
 import com.seckill.dto.SeckillMessage;
+import com.seckill.metrics.SeckillMetrics;
 import com.seckill.service.OrderService;
+import com.seckill.service.SeckillQueueService;
 import com.seckill.service.SeckillService;
+import com.seckill.utils.DataSourceRouting;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.slf4j.MDC;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.support.AmqpHeaders;
 import org.springframework.messaging.handler.annotation.Header;
@@ -16,6 +20,7 @@ import java.io.IOException;
 
 /**
  * RabbitMQ 消费者
+ * 下单、超时取消走消费端专用连接池（seckill.datasource.consumer.enabled），不与接口查询争抢主库连接
  */
 @Slf4j
 @Component
@@ -24,6 +29,11 @@ public class SeckillConsumer {
 
     private final SeckillService seckillService;
     private final OrderService orderService;
+    private final SeckillMetrics seckillMetrics;
+    private final SeckillQueueService queueService;
+    private final ConsumedMessageStore consumedMessageStore;
+
+    private static final String MDC_REQUEST_ID = "requestId";
 
     /**
      * 监听秒杀队列 - 异步创建订单
@@ -31,11 +41,32 @@ public class SeckillConsumer {
     @RabbitListener(queues = RabbitMQConfig.SECKILL_QUEUE)
     public void handleSeckillMessage(SeckillMessage message, Channel channel,
             @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) throws IOException {
+        long consumeStart = System.nanoTime();
+        if (message.getRequestId() != null) {
+            MDC.put(MDC_REQUEST_ID, message.getRequestId());
+        }
+        if (message.getAcceptTime() != null) {
+            seckillMetrics.recordMillis(SeckillMetrics.Stage.QUEUE_WAIT,
+                    System.currentTimeMillis() - message.getAcceptTime());
+        }
+        // 重投的消息已有确定结果，直接 ACK 丢弃（不再推进处理水位，也不访问 MySQL）
+        if (consumedMessageStore.isConsumed(message.getSeckillGoodsId(), message.getRequestId())) {
+            log.info("丢弃重复投递的秒杀消息: requestId={}, userId={}, seckillGoodsId={}",
+                    message.getRequestId(), message.getUserId(), message.getSeckillGoodsId());
+            channel.basicAck(deliveryTag, false);
+            MDC.remove(MDC_REQUEST_ID);
+            return;
+        }
         try {
-            log.info("收到秒杀消息: userId={}, seckillGoodsId={}",
-                    message.getUserId(), message.getSeckillGoodsId());
+            log.debug("收到秒杀消息: requestId={}, userId={}, seckillGoodsId={}",
+                    message.getRequestId(), message.getUserId(), message.getSeckillGoodsId());
 
-            seckillService.executeSeckill(message.getUserId(), message.getSeckillGoodsId());
+            long txStart = System.nanoTime();
+            DataSourceRouting.onConsumer(() -> seckillService.executeSeckill(
+                    message.getUserId(), message.getSeckillGoodsId(), message.getOrderId()));
+            seckillMetrics.record(SeckillMetrics.Stage.DB_TX, txStart);
+            // 事务已提交，结果确定
+            consumedMessageStore.markConsumed(message.getSeckillGoodsId(), message.getRequestId());
 
             // 手动ACK
             channel.basicAck(deliveryTag, false);
@@ -46,11 +77,25 @@ public class SeckillConsumer {
             // 所以我们需要通过 handleSeckillFail 将 Redis 的标记和库存全数回退，保证数据一致性（防止少卖）
             try {
                 seckillService.handleSeckillFail(message.getUserId(), message.getSeckillGoodsId());
+                consumedMessageStore.markConsumed(message.getSeckillGoodsId(), message.getRequestId());
             } catch (Exception compensationError) {
                 log.error("补偿还原秒杀库存失败: {}", compensationError.getMessage(), compensationError);
             }
             // 拒绝并不重新入队（避免无限循环）
             channel.basicNack(deliveryTag, false, false);
+        } finally {
+            // 推进排队处理水位（成功、失败均算已处理）
+            try {
+                queueService.markProcessed(message.getSeckillGoodsId());
+            } catch (Exception e) {
+                log.warn("推进排队处理水位失败: seckillGoodsId={}", message.getSeckillGoodsId());
+            }
+            // 成功和失败都会写入结果，均计入端到端耗时
+            if (message.getAcceptTime() != null) {
+                seckillMetrics.recordTimeToOrder(message.getAcceptTime());
+            }
+            seckillMetrics.record(SeckillMetrics.Stage.CONSUME, consumeStart);
+            MDC.remove(MDC_REQUEST_ID);
         }
     }
 
@@ -62,7 +107,7 @@ public class SeckillConsumer {
             @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) throws IOException {
         try {
             log.info("收到订单超时消息: orderId={}", orderId);
-            orderService.timeoutCancelOrder(orderId);
+            DataSourceRouting.onConsumer(() -> orderService.timeoutCancelOrder(orderId));
 
             channel.basicAck(deliveryTag, false);
         } catch (Exception e) {
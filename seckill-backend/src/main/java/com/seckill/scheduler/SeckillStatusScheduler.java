@@ -1,11 +1,13 @@
 package com.seckill.scheduler;
 
+import com.seckill.common.SeckillKeys;
 import com.seckill.mapper.SeckillGoodsMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
+import com.seckill.service.SeckillGoodsSnapshot;
 import com.seckill.service.SeckillService;
 
 /**
@@ -31,8 +33,7 @@ public class SeckillStatusScheduler {
     private final SeckillGoodsMapper seckillGoodsMapper;
     private final SeckillService seckillService;
     private final RedisTemplate<String, Object> redisTemplate;
-
-    private static final String GOODS_LIST_KEY = "seckill:goods:list";
+    private final SeckillGoodsSnapshot goodsSnapshot;
 
     /**
      * 每分钟执行一次：
@@ -51,6 +52,9 @@ public class SeckillStatusScheduler {
                 log.info("[状态同步] 已结束: {} 条, 重新激活: {} 条, 新开始: {} 条",
                         ended, reactivated, newlyStarted);
 
+                // 活动状态已变，所有节点的消费端商品快照失效
+                goodsSnapshot.invalidateAll();
+
                 // 如果有新开始或者重新激活的商品，将其库存追加装载进 Redis（不覆盖已有库存）
                 if (newlyStarted > 0 || reactivated > 0) {
                     seckillService.incrementalInitSeckillStock();
@@ -58,14 +62,14 @@ public class SeckillStatusScheduler {
                 }
 
                 // 清除商品列表缓存，让前端下次刷新能获取最新状态
-                redisTemplate.delete(GOODS_LIST_KEY);
+                redisTemplate.delete(SeckillKeys.GOODS_LIST);
                 log.info("[状态同步] 已清除 Redis 商品列表缓存");
 
                 // 对于刚刚结束的商品，抹除 Redis 中的库存痕迹
                 if (expiredIds != null && !expiredIds.isEmpty()) {
                     for (Long id : expiredIds) {
-                        redisTemplate.delete("seckill:stock:" + id);
-                        redisTemplate.delete("seckill:goods:detail:" + id);
+                        redisTemplate.delete(SeckillKeys.stock(id));
+                        redisTemplate.delete(SeckillKeys.goodsDetail(id));
                         seckillService.clearStockOverFlag(id);
                     }
                     log.info("[状态同步] 已清理 {} 个结束商品的 Redis 缓存和发售标记", expiredIds.size());
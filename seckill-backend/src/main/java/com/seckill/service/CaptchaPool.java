@@ -0,0 +1,199 @@
+package com.seckill.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.util.Base64;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 验证码预渲染池
+ *
+ * <p>
+ * 问题背景：开抢前所有用户同时请求验证码，Java2D 绘图 + PNG 编码 + Base64 全部在请求线程完成，
+ * 接口变成 CPU 密集型，p99 延迟随并发线性上升。
+ * </p>
+ *
+ * <p>
+ * 方案：后台补货线程持续预生成"图片 + 答案"放入有界队列，请求线程只做一次出队；
+ * 每个条目只会被取出一次，取出后由调用方绑定到 seckill:{goodsId}:captcha:{userId}。
+ * 池被瞬间抽空时退化为同步生成，保证接口可用。
+ * </p>
+ */
+@Slf4j
+@Component
+public class CaptchaPool {
+
+    private static final int WIDTH = 160;
+    private static final int HEIGHT = 50;
+
+    /** 池容量：按开抢前补货窗口内的预期验证码请求量配置 */
+    @Value("${seckill.captcha.pool-size:2000}")
+    private int poolSize;
+
+    /** 补货线程数 */
+    @Value("${seckill.captcha.refill-threads:2}")
+    private int refillThreads;
+
+    private BlockingQueue<CaptchaImage> pool;
+    private ExecutorService refillExecutor;
+
+    /**
+     * 预渲染的验证码条目
+     *
+     * @param answer      算式答案
+     * @param base64Image PNG 图片的 Base64 编码（不含 data URI 前缀）
+     */
+    public record CaptchaImage(int answer, String base64Image) {
+    }
+
+    @PostConstruct
+    public void start() {
+        pool = new ArrayBlockingQueue<>(poolSize);
+        AtomicInteger threadIndex = new AtomicInteger();
+        refillExecutor = Executors.newFixedThreadPool(refillThreads, r -> {
+            Thread t = new Thread(r, "captcha-refill-" + threadIndex.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        for (int i = 0; i < refillThreads; i++) {
+            refillExecutor.execute(this::refillLoop);
+        }
+        log.info("验证码预渲染池启动, 容量={}, 补货线程={}", poolSize, refillThreads);
+    }
+
+    @PreDestroy
+    public void stop() {
+        refillExecutor.shutdownNow();
+    }
+
+    /**
+     * 取出一个验证码（出队即作废，不会被第二个用户拿到）
+     * 池为空时同步生成，避免接口失败
+     */
+    public CaptchaImage take() {
+        CaptchaImage captcha = pool.poll();
+        return captcha != null ? captcha : render();
+    }
+
+    /**
+     * 当前池中可用数量
+     */
+    public int available() {
+        return pool.size();
+    }
+
+    /**
+     * 补货循环：队列满时 put 阻塞，线程空闲等待，被取走后自动补齐
+     */
+    private void refillLoop() {
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                pool.put(render());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (Exception e) {
+                log.error("预生成验证码失败", e);
+            }
+        }
+    }
+
+    /**
+     * 生成一个数学算式验证码（图片 + 答案）
+     */
+    public static CaptchaImage render() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int num1 = random.nextInt(9) + 1;
+        int num2 = random.nextInt(9) + 1;
+        int op = random.nextInt(3); // 0: + 1: - 2: ×
+
+        String expression;
+        int answer;
+        switch (op) {
+            case 0:
+                expression = num1 + " + " + num2;
+                answer = num1 + num2;
+                break;
+            case 1:
+                if (num1 < num2) {
+                    int temp = num1;
+                    num1 = num2;
+                    num2 = temp;
+                }
+                expression = num1 + " - " + num2;
+                answer = num1 - num2;
+                break;
+            default:
+                expression = num1 + " × " + num2;
+                answer = num1 * num2;
+                break;
+        }
+
+        expression += " = ?";
+        return new CaptchaImage(answer, renderImage(expression, random));
+    }
+
+    /**
+     * 生成验证码图片（Base64）
+     */
+    private static String renderImage(String text, ThreadLocalRandom random) {
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g2d = image.createGraphics();
+
+        // 抗锯齿
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+        // 背景 - 深色主题匹配
+        g2d.setColor(new Color(30, 30, 46));
+        g2d.fillRect(0, 0, WIDTH, HEIGHT);
+
+        // 干扰线
+        for (int i = 0; i < 6; i++) {
+            g2d.setColor(new Color(60 + random.nextInt(40), 60 + random.nextInt(40), 80 + random.nextInt(40)));
+            g2d.setStroke(new BasicStroke(1.2f));
+            g2d.drawLine(random.nextInt(WIDTH), random.nextInt(HEIGHT),
+                    random.nextInt(WIDTH), random.nextInt(HEIGHT));
+        }
+
+        // 干扰点
+        for (int i = 0; i < 50; i++) {
+            g2d.setColor(new Color(80 + random.nextInt(60), 80 + random.nextInt(60), 100 + random.nextInt(60)));
+            g2d.fillRect(random.nextInt(WIDTH), random.nextInt(HEIGHT), 2, 2);
+        }
+
+        // 绘制文字
+        g2d.setFont(new Font("Arial", Font.BOLD, 26));
+        g2d.setColor(new Color(139, 92, 246)); // accent purple
+        // 居中绘制
+        FontMetrics fm = g2d.getFontMetrics();
+        int x = (WIDTH - fm.stringWidth(text)) / 2;
+        int y = (HEIGHT - fm.getHeight()) / 2 + fm.getAscent();
+
+        // 轻微旋转
+        g2d.rotate(Math.toRadians(random.nextInt(5) - 2), (double) WIDTH / 2, (double) HEIGHT / 2);
+        g2d.drawString(text, x, y);
+
+        g2d.dispose();
+
+        try {
+            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ImageIO.write(image, "PNG", baos);
+            return Base64.getEncoder().encodeToString(baos.toByteArray());
+        } catch (Exception e) {
+            log.error("生成验证码图片失败", e);
+            return "";
+        }
+    }
+}
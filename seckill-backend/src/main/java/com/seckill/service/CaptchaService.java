@@ -1,10 +1,14 @@
 package com.seckill.service;
 
+import com.seckill.common.SeckillKeys;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 
+import java.util.Arrays;
+
 /**
  * 验证码服务 - 从 CaptchaController 中提取（P1-1 修复：Service 不应依赖 Controller）
  */
@@ -14,11 +18,11 @@ import org.springframework.stereotype.Service;
 public class CaptchaService {
 
     private final RedisTemplate<String, Object> redisTemplate;
-
-    private static final String CAPTCHA_KEY = "captcha:seckill:";
+    private final DefaultRedisScript<Long> captchaPathScript;
 
     /**
      * 验证验证码（用后即删，防止重放）
+     * 使用 GETDEL 原子取值并删除，单次往返，并发请求只有一个能读到答案
      *
      * @param userId         用户ID
      * @param seckillGoodsId 秒杀商品ID
@@ -26,12 +30,32 @@ public class CaptchaService {
      * @return 验证码是否正确
      */
     public boolean verifyCaptcha(Long userId, Long seckillGoodsId, int userAnswer) {
-        String key = CAPTCHA_KEY + userId + ":" + seckillGoodsId;
-        Object stored = redisTemplate.opsForValue().get(key);
+        String key = SeckillKeys.captcha(userId, seckillGoodsId);
+        Object stored = redisTemplate.opsForValue().getAndDelete(key);
         if (stored == null) {
             return false;
         }
-        redisTemplate.delete(key); // 用后即删
         return Integer.parseInt(stored.toString()) == userAnswer;
     }
+
+    /**
+     * 校验验证码并在同一个原子脚本中写入秒杀路径
+     *
+     * @param userId         用户ID
+     * @param seckillGoodsId 秒杀商品ID
+     * @param userAnswer     用户输入的验证码答案
+     * @param pathKey        秒杀路径的 Redis key
+     * @param path           待写入的秒杀路径
+     * @param ttlSeconds     路径有效期（秒）
+     * @return 验证码正确且路径已写入时返回 true
+     */
+    public boolean verifyCaptchaAndBindPath(Long userId, Long seckillGoodsId, int userAnswer,
+            String pathKey, String path, long ttlSeconds) {
+        String captchaKey = SeckillKeys.captcha(userId, seckillGoodsId);
+        Long result = redisTemplate.execute(
+                captchaPathScript,
+                Arrays.asList(captchaKey, pathKey),
+                userAnswer, path, ttlSeconds);
+        return result != null && result == 1;
+    }
 }
@@ -0,0 +1,110 @@
+package com.seckill.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.seckill.entity.SeckillGoods;
+import com.seckill.mapper.SeckillGoodsMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * 秒杀商品ID过滤器（进程内位图）
+ *
+ * <p>
+ * 问题背景：爬虫遍历随机商品ID时，详情接口每个不存在的ID都会查一次 MySQL 并写一个空值哨兵 key，
+ * 验证码、秒杀接口对任意ID都会写 Redis（限流计数、验证码答案）甚至执行 Lua。
+ * </p>
+ *
+ * <p>
+ * 方案：商品ID为自增主键，直接用两张位图精确记录（无误判，万级商品只占几 KB）：
+ * 上架商品（goods_status=1）与进行中商品（另需 seckill_status=1）。
+ * GoodsIdInterceptor 在所有拦截器之前查询，未知ID直接拒绝，不访问 Redis 和 MySQL。
+ * 商品变更广播（SeckillGoodsSnapshot.GOODS_CHANNEL）到达时重建，另每分钟全量重建兜底。
+ * 首次构建完成前放行全部请求。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GoodsIdFilter implements MessageListener {
+
+    private final SeckillGoodsMapper seckillGoodsMapper;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    /** 当前位图，重建时整体替换，构建完成后只读 */
+    private volatile Bitmaps bitmaps;
+
+    @PostConstruct
+    public void init() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(SeckillGoodsSnapshot.GOODS_CHANNEL));
+        rebuild();
+    }
+
+    /**
+     * 是否为上架商品（详情、结果查询等）
+     */
+    public boolean isListed(Long seckillGoodsId) {
+        Bitmaps current = bitmaps;
+        return current == null || contains(current.listed, seckillGoodsId);
+    }
+
+    /**
+     * 是否为进行中的秒杀商品（验证码、秒杀路径、下单）
+     */
+    public boolean isActive(Long seckillGoodsId) {
+        Bitmaps current = bitmaps;
+        return current == null || contains(current.active, seckillGoodsId);
+    }
+
+    /**
+     * 从数据库全量重建位图
+     */
+    @Scheduled(fixedRate = 60_000, initialDelay = 60_000)
+    public void rebuild() {
+        try {
+            List<SeckillGoods> list = seckillGoodsMapper.selectList(
+                    new LambdaQueryWrapper<SeckillGoods>()
+                            .select(SeckillGoods::getId, SeckillGoods::getGoodsStatus, SeckillGoods::getSeckillStatus)
+                            .eq(SeckillGoods::getGoodsStatus, 1));
+            BitSet listed = new BitSet();
+            BitSet active = new BitSet();
+            for (SeckillGoods sg : list) {
+                if (sg.getId() > Integer.MAX_VALUE) {
+                    continue;
+                }
+                int index = sg.getId().intValue();
+                listed.set(index);
+                if (sg.getSeckillStatus() != null && sg.getSeckillStatus() == 1) {
+                    active.set(index);
+                }
+            }
+            bitmaps = new Bitmaps(listed, active);
+            log.debug("商品ID位图已重建: 上架 {} 个, 进行中 {} 个", listed.cardinality(), active.cardinality());
+        } catch (Exception e) {
+            // 保留旧位图继续使用
+            log.warn("重建商品ID位图失败: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        rebuild();
+    }
+
+    private static boolean contains(BitSet bitSet, Long seckillGoodsId) {
+        return seckillGoodsId != null && seckillGoodsId >= 0 && seckillGoodsId <= Integer.MAX_VALUE
+                && bitSet.get(seckillGoodsId.intValue());
+    }
+
+    private record Bitmaps(BitSet listed, BitSet active) {
+    }
+}
@@ -1,6 +1,7 @@
 package com.seckill.service;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import com.seckill.common.SeckillKeys;
 import com.seckill.entity.SeckillGoods;
 import com.seckill.mapper.SeckillGoodsMapper;
 import com.seckill.vo.SeckillGoodsVo;
@@ -27,10 +28,8 @@ public class GoodsService extends ServiceImpl<SeckillGoodsMapper, SeckillGoods>
 
     private final SeckillGoodsMapper seckillGoodsMapper;
     private final RedisTemplate<String, Object> redisTemplate;
-
-    private static final String GOODS_DETAIL_KEY = "seckill:goods:detail:";
-    private static final String GOODS_LIST_KEY = "seckill:goods:list";
-    private static final String STOCK_KEY = "seckill:stock:";
+    private final SeckillGoodsSnapshot goodsSnapshot;
+    private final ReplicaReads replicaReads;
 
     /**
      * 获取秒杀商品列表
@@ -38,13 +37,13 @@ public class GoodsService extends ServiceImpl<SeckillGoodsMapper, SeckillGoods>
     @SuppressWarnings("unchecked")
     public List<SeckillGoodsVo> listSeckillGoods() {
         // 先从缓存获取
-        Object cached = redisTemplate.opsForValue().get(GOODS_LIST_KEY);
+        Object cached = redisTemplate.opsForValue().get(SeckillKeys.GOODS_LIST);
         if (cached != null) {
             return (List<SeckillGoodsVo>) cached;
         }
 
-        // 查询所有上架的秒杀商品
-        List<SeckillGoods> seckillGoodsList = seckillGoodsMapper.selectList(null);
+        // 查询所有上架的秒杀商品（列表只缓存 60 秒，可容忍副本的秒级滞后）
+        List<SeckillGoods> seckillGoodsList = replicaReads.read(() -> seckillGoodsMapper.selectList(null));
         List<SeckillGoodsVo> voList = new ArrayList<>();
 
         for (SeckillGoods sg : seckillGoodsList) {
@@ -56,7 +55,7 @@ public class GoodsService extends ServiceImpl<SeckillGoodsMapper, SeckillGoods>
         }
 
         // 缓存60秒
-        redisTemplate.opsForValue().set(GOODS_LIST_KEY, voList, 60, TimeUnit.SECONDS);
+        redisTemplate.opsForValue().set(SeckillKeys.GOODS_LIST, voList, 60, TimeUnit.SECONDS);
         return voList;
     }
 
@@ -64,7 +63,7 @@ public class GoodsService extends ServiceImpl<SeckillGoodsMapper, SeckillGoods>
      * 获取秒杀商品详情
      */
     public SeckillGoodsVo getSeckillGoodsDetail(Long seckillGoodsId) {
-        String key = GOODS_DETAIL_KEY + seckillGoodsId;
+        String key = SeckillKeys.goodsDetail(seckillGoodsId);
 
         // 先从缓存获取
         Object cached = redisTemplate.opsForValue().get(key);
@@ -75,7 +74,8 @@ public class GoodsService extends ServiceImpl<SeckillGoodsMapper, SeckillGoods>
             return (SeckillGoodsVo) cached;
         }
 
-        SeckillGoods sg = seckillGoodsMapper.selectById(seckillGoodsId);
+        // 副本未查到时回主库确认，新上架的商品不会被写成空值哨兵
+        SeckillGoods sg = replicaReads.readOrPrimary(() -> seckillGoodsMapper.selectById(seckillGoodsId));
         if (sg == null) {
             redisTemplate.opsForValue().set(key, "", 30, TimeUnit.SECONDS);
             return null;
@@ -90,8 +90,9 @@ public class GoodsService extends ServiceImpl<SeckillGoodsMapper, SeckillGoods>
 
     /**
      * 构建秒杀商品VO（计算秒杀状态和倒计时）
+     * 纯函数，无 Bean 依赖（基准测试直接调用）
      */
-    private SeckillGoodsVo buildSeckillGoodsVo(SeckillGoods sg) {
+    public static SeckillGoodsVo buildSeckillGoodsVo(SeckillGoods sg) {
         SeckillGoodsVo vo = new SeckillGoodsVo();
         vo.setGoodsId(sg.getId());
         vo.setSeckillGoodsId(sg.getId());
@@ -149,6 +150,8 @@ public class GoodsService extends ServiceImpl<SeckillGoodsMapper, SeckillGoods>
         seckillGoodsMapper.insert(sg);
 
         clearCache();
+        // 新商品ID需加入各节点的商品ID位图
+        goodsSnapshot.invalidate(sg.getId());
     }
 
     /**
@@ -199,12 +202,14 @@ public class GoodsService extends ServiceImpl<SeckillGoodsMapper, SeckillGoods>
     }
 
     private void clearCache() {
-        redisTemplate.delete(GOODS_LIST_KEY);
+        redisTemplate.delete(SeckillKeys.GOODS_LIST);
     }
 
     private void clearCache(Long seckillGoodsId) {
-        redisTemplate.delete(GOODS_LIST_KEY);
-        redisTemplate.delete(GOODS_DETAIL_KEY + seckillGoodsId);
-        redisTemplate.delete(STOCK_KEY + seckillGoodsId);
+        redisTemplate.delete(SeckillKeys.GOODS_LIST);
+        redisTemplate.delete(SeckillKeys.goodsDetail(seckillGoodsId));
+        redisTemplate.delete(SeckillKeys.stock(seckillGoodsId));
+        // 消费端商品快照（事务提交后失效并广播）
+        goodsSnapshot.invalidate(seckillGoodsId);
     }
 }
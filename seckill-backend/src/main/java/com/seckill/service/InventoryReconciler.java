@@ -0,0 +1,186 @@
+package com.seckill.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.seckill.common.SeckillKeys;
+import com.seckill.entity.SeckillGoods;
+import com.seckill.entity.SeckillOrder;
+import com.seckill.mapper.SeckillGoodsMapper;
+import com.seckill.mapper.SeckillOrderMapper;
+import com.seckill.metrics.SeckillMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 库存对账服务（Redis 库存 / DB 库存 / 订单）
+ *
+ * <p>
+ * 问题背景：库存同时存在于 seckill:{id}:stock、t_seckill_goods.stock_count 和有效的 t_seckill_order 中，
+ * handleSeckillFail、MQ 投递失败回滚、取消订单等补偿路径任何一步失败都会让三者不一致，
+ * 而后台只展示 DB 与 Redis 两个数字（秒杀进行中二者本来就不相等），少卖往往在活动结束后才被发现。
+ * </p>
+ *
+ * <p>
+ * 期望库存：下单时扣 DB 库存与写订单在同一事务内，DB 库存已经扣掉了所有有效订单；
+ * 尚未被消费的请求已扣 Redis 库存但还没扣 DB 库存，数量为 排队号 - 处理水位（见 SeckillQueueService）。
+ * 因此 期望 Redis 库存 = DB 库存 - 在途请求数，偏差 = Redis 库存 - 期望库存。
+ * </p>
+ *
+ * <p>
+ * 修复：消费端提交事务与推进水位之间存在瞬时偏差，因此只在"安静窗口"内修复——
+ * 连续两轮对账的库存、排队号、处理水位、DB 库存完全相同且偏差不为 0，
+ * 再用 Lua 比较并设置（stockRepairScript），期间只要有一次新的扣减、受理或消费就放弃本次修复，不会覆盖实时扣减。
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InventoryReconciler {
+
+    private final SeckillGoodsMapper seckillGoodsMapper;
+    private final SeckillOrderMapper seckillOrderMapper;
+    private final OrderSharding orderSharding;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final DefaultRedisScript<Long> stockRepairScript;
+    private final StockOverFlags stockOverFlags;
+    private final SeckillMetrics seckillMetrics;
+
+    /** 是否自动修复（关闭后只检测并上报偏差） */
+    @Value("${seckill.reconcile.repair:true}")
+    private boolean repairEnabled;
+
+    /** 上一轮对账快照：seckillGoodsId → 快照 */
+    private final Map<Long, StockSnapshot> lastSnapshots = new ConcurrentHashMap<>();
+
+    /**
+     * 定时对账所有进行中的秒杀商品
+     */
+    @Scheduled(fixedDelayString = "${seckill.reconcile.interval-ms:30000}",
+            initialDelayString = "${seckill.reconcile.interval-ms:30000}")
+    public void reconcile() {
+        List<SeckillGoods> list = seckillGoodsMapper.selectList(
+                new LambdaQueryWrapper<SeckillGoods>()
+                        .eq(SeckillGoods::getSeckillStatus, 1)
+                        .eq(SeckillGoods::getGoodsStatus, 1));
+        Set<Long> seen = new HashSet<>();
+        for (SeckillGoods sg : list) {
+            seen.add(sg.getId());
+            try {
+                reconcileOne(sg);
+            } catch (Exception e) {
+                log.warn("[库存对账] 商品 {} 对账失败: {}", sg.getId(), e.getMessage());
+            }
+        }
+        lastSnapshots.keySet().retainAll(seen);
+    }
+
+    /**
+     * 读取单个商品当前的库存快照（供管理后台展示），Redis 中没有库存时返回 null
+     */
+    public StockSnapshot inspect(Long seckillGoodsId, int dbStock) {
+        Long redisStock = readCounter(SeckillKeys.stock(seckillGoodsId));
+        if (redisStock == null) {
+            return null;
+        }
+        long ticket = orZero(readCounter(SeckillKeys.ticket(seckillGoodsId)));
+        long done = orZero(readCounter(SeckillKeys.queueDone(seckillGoodsId)));
+        return new StockSnapshot(redisStock, dbStock, ticket, done);
+    }
+
+    /**
+     * 商品的有效秒杀订单数（取消订单会删除秒杀订单记录）
+     */
+    public long countLiveOrders(Long seckillGoodsId) {
+        return orderSharding.sum(() -> seckillOrderMapper.selectCount(
+                new LambdaQueryWrapper<SeckillOrder>().eq(SeckillOrder::getGoodsId, seckillGoodsId)));
+    }
+
+    private void reconcileOne(SeckillGoods sg) {
+        Long goodsId = sg.getId();
+        StockSnapshot current = inspect(goodsId, sg.getStockCount());
+        if (current == null || current.inFlight() < 0) {
+            // 尚未预热，或排队计数刚被重置（重置前的消息仍在推进水位），本轮跳过
+            lastSnapshots.remove(goodsId);
+            return;
+        }
+        seckillMetrics.recordStockDrift(goodsId, current.drift());
+
+        StockSnapshot previous = lastSnapshots.put(goodsId, current);
+        if (current.drift() == 0 || !current.equals(previous)) {
+            return;
+        }
+        if (!repairEnabled) {
+            log.warn("[库存对账] 商品 {} 库存偏差 {} (Redis={}, 期望={}), 自动修复已关闭",
+                    goodsId, current.drift(), current.redisStock(), current.expectedStock());
+            return;
+        }
+
+        Long repaired = redisTemplate.execute(stockRepairScript,
+                Arrays.asList(SeckillKeys.stock(goodsId),
+                        SeckillKeys.ticket(goodsId),
+                        SeckillKeys.queueDone(goodsId)),
+                current.redisStock(), current.ticket(), current.done(), current.expectedStock());
+        if (repaired == null || repaired != 1L) {
+            log.info("[库存对账] 商品 {} 修复期间库存有变动，放弃本轮修复", goodsId);
+            return;
+        }
+
+        lastSnapshots.remove(goodsId);
+        seckillMetrics.recordStockDrift(goodsId, 0);
+        seckillMetrics.countStockRepair();
+        if (current.expectedStock() > 0) {
+            // 少卖修复后重新开放受理
+            stockOverFlags.clear(goodsId);
+        } else {
+            stockOverFlags.markOver(goodsId);
+        }
+        log.warn("[库存对账] 商品 {} Redis 库存 {} → {} (DB={}, 在途={})",
+                goodsId, current.redisStock(), current.expectedStock(), current.dbStock(), current.inFlight());
+    }
+
+    private Long readCounter(String key) {
+        Object value = redisTemplate.opsForValue().get(key);
+        return value != null ? Long.valueOf(value.toString()) : null;
+    }
+
+    private static long orZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    /**
+     * 对账快照
+     *
+     * @param redisStock Redis 库存
+     * @param dbStock    DB 库存
+     * @param ticket     已发放的排队号
+     * @param done       已处理的请求数
+     */
+    public record StockSnapshot(long redisStock, long dbStock, long ticket, long done) {
+
+        /** 已扣 Redis 库存、尚未落库的请求数 */
+        public long inFlight() {
+            return ticket - done;
+        }
+
+        /** 期望的 Redis 库存 */
+        public long expectedStock() {
+            return Math.max(dbStock - inFlight(), 0);
+        }
+
+        /** 偏差：正数为 Redis 多出（受理后下单失败），负数为少卖 */
+        public long drift() {
+            return redisStock - expectedStock();
+        }
+    }
+}
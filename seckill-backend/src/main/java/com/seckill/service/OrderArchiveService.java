@@ -0,0 +1,188 @@
+package com.seckill.service;
+
+import com.seckill.entity.OrderInfo;
+import com.seckill.mapper.OrderArchiveMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * 订单冷热分离（归档）
+ *
+ * <p>
+ * 问题背景：已取消和早已支付的订单永远留在 t_order_info，表和 idx_user_id / idx_goods_id 越来越大，
+ * 挤占 Buffer Pool，开抢时 executeSeckill 的写入和用户订单查询都被拖慢。
+ * 开启后每天低峰期把创建时间早于 after-days 天、且已不是"未支付"状态的订单分批搬到 t_order_info_archive
+ * （InnoDB 压缩行格式，只保留主键和 user_id 索引），热表只保留近期订单。
+ * </p>
+ *
+ * <p>
+ * 搬迁：每批按主键取 batch-size 条，同一事务内 INSERT IGNORE 到归档表并从热表删除，批次间暂停 pause-ms 限速；
+ * 分表时逐个分表处理。多节点通过 Redis 锁保证同一时间只有一个节点在搬迁。
+ * t_seckill_order 不归档：它是"同一用户同一商品只能买一次"的唯一约束，且取消的订单已删除对应记录。
+ * </p>
+ *
+ * <p>
+ * 查询：OrderService 的订单详情、订单列表、订单统计在开启归档后自动合并归档表的数据，调用方无感知；
+ * 未支付订单不会被归档，支付、取消、超时取消只作用于热表。
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderArchiveService {
+
+    private static final String ORDER_TABLE = "t_order_info";
+    private static final String ARCHIVE_TABLE = "t_order_info_archive";
+    private static final String COLUMNS = OrderArchiveMapper.COLUMNS;
+    private static final String LOCK_KEY = "seckill:order:archive:lock";
+    /** 订单状态：未支付（不归档） */
+    private static final int STATUS_UNPAID = 0;
+
+    private final OrderArchiveMapper orderArchiveMapper;
+    private final OrderSharding orderSharding;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /** 是否开启归档（同时决定订单查询是否合并归档表） */
+    @Value("${seckill.order.archive.enabled:false}")
+    private boolean enabled;
+
+    /** 创建超过多少天的订单归档 */
+    @Value("${seckill.order.archive.after-days:90}")
+    private int afterDays;
+
+    /** 每批搬迁行数 */
+    @Value("${seckill.order.archive.batch-size:500}")
+    private int batchSize;
+
+    /** 批次间暂停(毫秒)，限制对主库和复制的压力 */
+    @Value("${seckill.order.archive.pause-ms:200}")
+    private long pauseMillis;
+
+    /** 单次任务最长运行时长(分钟)，同时是多节点互斥锁的有效期 */
+    @Value("${seckill.order.archive.max-minutes:60}")
+    private long maxMinutes;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * 定时归档（默认每天 03:30）
+     */
+    @Scheduled(cron = "${seckill.order.archive.cron:0 30 3 * * ?}")
+    public void archive() {
+        if (!enabled) {
+            return;
+        }
+        String token = UUID.randomUUID().toString();
+        Boolean locked = stringRedisTemplate.opsForValue().setIfAbsent(LOCK_KEY, token, maxMinutes, TimeUnit.MINUTES);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.info("[订单归档] 其它节点正在归档, 本节点跳过");
+            return;
+        }
+        long start = System.currentTimeMillis();
+        long deadline = start + TimeUnit.MINUTES.toMillis(maxMinutes);
+        LocalDateTime before = LocalDateTime.now().minusDays(afterDays);
+        long archived = 0;
+        try {
+            for (int shard = 0; shard < orderSharding.getShards(); shard++) {
+                archived += archiveTable(OrderSharding.physicalTable(ORDER_TABLE, orderSharding.getShards(), shard),
+                        before, deadline);
+            }
+            log.info("[订单归档] 完成, 归档 {} 条 {} 之前的订单, 耗时={}ms", archived, before, System.currentTimeMillis() - start);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("[订单归档] 失败, 已归档 {} 条", archived, e);
+        } finally {
+            if (token.equals(stringRedisTemplate.opsForValue().get(LOCK_KEY))) {
+                stringRedisTemplate.delete(LOCK_KEY);
+            }
+        }
+    }
+
+    private long archiveTable(String table, LocalDateTime before, long deadline) throws InterruptedException {
+        String selectIds = "SELECT id FROM " + table + " WHERE status <> ? AND create_time < ? ORDER BY id LIMIT ?";
+        long archived = 0;
+        while (System.currentTimeMillis() < deadline) {
+            List<Long> ids = jdbcTemplate.queryForList(selectIds, Long.class, STATUS_UNPAID, Timestamp.valueOf(before), batchSize);
+            if (ids.isEmpty()) {
+                break;
+            }
+            String in = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+            Integer moved = transactionTemplate.execute(tx -> {
+                jdbcTemplate.update("INSERT IGNORE INTO " + ARCHIVE_TABLE + " (" + COLUMNS + ") SELECT " + COLUMNS
+                        + " FROM " + table + " WHERE id IN (" + in + ")");
+                return jdbcTemplate.update("DELETE FROM " + table + " WHERE id IN (" + in + ")");
+            });
+            archived += moved != null ? moved : 0;
+            if (ids.size() < batchSize) {
+                break;
+            }
+            Thread.sleep(pauseMillis);
+        }
+        if (archived > 0) {
+            log.info("[订单归档] {} 归档 {} 条", table, archived);
+        }
+        return archived;
+    }
+
+    /**
+     * 热表未查到时查归档表
+     */
+    public OrderInfo findOrder(Long userId, Long orderId) {
+        return enabled ? orderArchiveMapper.selectByUserAndId(userId, orderId) : null;
+    }
+
+    /**
+     * 合并用户的归档订单，按创建时间倒序
+     *
+     * @param status 为 null 或负数时不过滤
+     */
+    public List<OrderInfo> withArchived(List<OrderInfo> hotOrders, Long userId, Integer status) {
+        if (!enabled || (status != null && status == STATUS_UNPAID)) {
+            return hotOrders;
+        }
+        List<OrderInfo> archived = orderArchiveMapper.selectByUser(userId, status != null && status >= 0 ? status : null);
+        if (archived.isEmpty()) {
+            return hotOrders;
+        }
+        List<OrderInfo> merged = new ArrayList<>(hotOrders.size() + archived.size());
+        merged.addAll(hotOrders);
+        merged.addAll(archived);
+        merged.sort(Comparator.comparing(OrderInfo::getCreateTime, Comparator.nullsLast(Collections.reverseOrder())));
+        return merged;
+    }
+
+    /**
+     * 用户的归档订单数
+     */
+    public long countByUser(Long userId, Integer status) {
+        return enabled && !Integer.valueOf(STATUS_UNPAID).equals(status) ? orderArchiveMapper.countByUser(userId, status) : 0L;
+    }
+
+    /**
+     * 全部归档订单数
+     */
+    public long countAll(Integer status) {
+        return enabled && !Integer.valueOf(STATUS_UNPAID).equals(status) ? orderArchiveMapper.countAll(status) : 0L;
+    }
+}
@@ -0,0 +1,242 @@
+package com.seckill.service;
+
+import com.baomidou.mybatisplus.core.incrementer.IdentifierGenerator;
+import com.seckill.common.SeckillKeys;
+import com.seckill.utils.SnowflakeIdWorker;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 订单号生成器（替代 AUTO_INCREMENT）
+ *
+ * <p>
+ * 问题背景：订单主键依赖数据库自增，下单时才知道订单号，写入热点集中在主键尾部，也无法分库分表。
+ * 现在由应用在 doSeckill 受理时直接分配时间有序的订单号（SnowflakeIdWorker），随 MQ 消息传给消费端落库；
+ * 同时注册为 MyBatis-Plus 的 IdentifierGenerator，@TableId(type = ASSIGN_ID) 的实体插入时未设置 id 也由它生成。
+ * </p>
+ *
+ * <p>
+ * workerId 通过 Redis 租约分配（seckill:worker:{n}，SET NX EX），节点定时续约，并把本地有效期截止时间作为"发号时间上限"写入 seckill:worker:{n}:ts；
+ * 租约丢失（Redis 长时间不可达、进程暂停）时停止发号并重新申请，避免两个节点持有同一个 workerId。
+ * 新持有者从该上限的下一毫秒开始发号，上一个持有者异常退出、两台机器时钟有偏差（不超过 max-backward-ms）时也不会发出重复的订单号；
+ * 正常停机时写入实际的最大发号时间戳再释放。
+ * </p>
+ *
+ * <p>
+ * 释放在 SmartLifecycle.stop 中执行：晚于 Web 服务器和 MQ 监听容器停止（不再有新的发号请求），
+ * 早于 Redis 连接工厂停止（phase 0），@PreDestroy 时连接工厂已经关闭，释放必然失败。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OrderIdGenerator implements IdentifierGenerator, SmartLifecycle {
+
+    /** 停机顺序：大于 Redis 连接工厂的 phase 0，小于 Web 服务器、MQ 监听容器 */
+    private static final int LIFECYCLE_PHASE = 1;
+
+    private final StringRedisTemplate stringRedisTemplate;
+    private final DefaultRedisScript<Long> workerLeaseRenewScript;
+    private final DefaultRedisScript<Long> workerLeaseReleaseScript;
+
+    /** 本节点租约令牌 */
+    private final String leaseToken = UUID.randomUUID().toString();
+
+    /** workerId 租约时长(秒) */
+    @Value("${seckill.id.lease-seconds:30}")
+    private long leaseSeconds;
+
+    /** 允许容忍的时钟回拨(毫秒)，超过则拒绝发号 */
+    @Value("${seckill.id.max-backward-ms:2000}")
+    private long maxBackwardMillis;
+
+    private volatile SnowflakeIdWorker worker;
+
+    /**
+     * 租约本地有效期截止时间，超过后不再发号
+     * 从发起续约前开始计时，并扣掉 1/3 租约时长，保证本地先于 Redis 中的租约过期
+     */
+    private volatile long leaseValidUntil;
+
+    private volatile boolean running;
+    /** 已在停机时释放 workerId，此后不再申请 */
+    private volatile boolean released;
+
+    @PostConstruct
+    public void init() {
+        acquire();
+    }
+
+    @Override
+    public Long nextId(Object entity) {
+        return nextId();
+    }
+
+    /**
+     * 分配一个订单号
+     */
+    public long nextId() {
+        SnowflakeIdWorker current = worker;
+        if (current == null || System.currentTimeMillis() >= leaseValidUntil) {
+            current = reacquire();
+        }
+        return current.nextId();
+    }
+
+    /**
+     * 不阻塞的发号：租约在本地有效期内且当前毫秒序列号未用尽时返回订单号，否则返回 null
+     * 返回 null 时需要访问 Redis 重新申请租约或自旋等待下一毫秒，由调用方切换到可阻塞的线程调用 nextId()
+     */
+    public Long tryNextId() {
+        SnowflakeIdWorker current = worker;
+        if (current == null || System.currentTimeMillis() >= leaseValidUntil) {
+            return null;
+        }
+        long id = current.tryNextId();
+        return id >= 0 ? id : null;
+    }
+
+    /**
+     * 续约，间隔为租约时长的 1/3
+     */
+    @Scheduled(fixedDelayString = "#{${seckill.id.lease-seconds:30} * 1000 / 3}")
+    public void renew() {
+        if (released) {
+            return;
+        }
+        SnowflakeIdWorker current = worker;
+        if (current == null) {
+            reacquire();
+            return;
+        }
+        long validUntil = validUntil(System.currentTimeMillis());
+        try {
+            Long renewed = stringRedisTemplate.execute(workerLeaseRenewScript,
+                    List.of(SeckillKeys.workerLease((int) current.getWorkerId()),
+                            SeckillKeys.workerTimestamp((int) current.getWorkerId())),
+                    leaseToken, String.valueOf(leaseSeconds), String.valueOf(validUntil));
+            if (renewed != null && renewed == 1) {
+                leaseValidUntil = validUntil;
+                return;
+            }
+            log.warn("[订单号] workerId={} 租约已丢失, 重新申请", current.getWorkerId());
+            drop(current);
+            reacquire();
+        } catch (Exception e) {
+            // Redis 暂时不可达：本地有效期内继续发号，过期后 nextId 会重新申请
+            log.warn("[订单号] workerId={} 续约失败: {}", current.getWorkerId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void start() {
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        release();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return LIFECYCLE_PHASE;
+    }
+
+    private synchronized void release() {
+        released = true;
+        SnowflakeIdWorker current = worker;
+        if (current == null) {
+            return;
+        }
+        worker = null;
+        try {
+            stringRedisTemplate.execute(workerLeaseReleaseScript,
+                    List.of(SeckillKeys.workerLease((int) current.getWorkerId()),
+                            SeckillKeys.workerTimestamp((int) current.getWorkerId())),
+                    leaseToken, String.valueOf(current.getLastTimestamp()));
+            log.info("[订单号] 已释放 workerId={}", current.getWorkerId());
+        } catch (Exception e) {
+            log.warn("[订单号] 释放 workerId={} 失败, 等待租约自然过期: {}", current.getWorkerId(), e.getMessage());
+        }
+    }
+
+    private synchronized SnowflakeIdWorker reacquire() {
+        SnowflakeIdWorker current = worker;
+        if (current != null && System.currentTimeMillis() < leaseValidUntil) {
+            return current;
+        }
+        if (released) {
+            throw new IllegalStateException("节点停机中，订单号 workerId 已释放");
+        }
+        if (current != null) {
+            drop(current);
+        }
+        return acquire();
+    }
+
+    private synchronized void drop(SnowflakeIdWorker current) {
+        if (worker == current) {
+            worker = null;
+        }
+    }
+
+    /**
+     * 依次尝试 0 ~ MAX_WORKER_ID，取第一个空闲且上一个持有者的最大时间戳不超前本机时钟太多的 workerId
+     */
+    private synchronized SnowflakeIdWorker acquire() {
+        for (int workerId = 0; workerId <= SnowflakeIdWorker.MAX_WORKER_ID; workerId++) {
+            String leaseKey = SeckillKeys.workerLease(workerId);
+            long validUntil = validUntil(System.currentTimeMillis());
+            Boolean ok = stringRedisTemplate.opsForValue()
+                    .setIfAbsent(leaseKey, leaseToken, leaseSeconds, TimeUnit.SECONDS);
+            if (!Boolean.TRUE.equals(ok)) {
+                continue;
+            }
+            long lastTimestamp = lastTimestampOf(workerId);
+            // 从 lastTimestamp 的下一毫秒开始发号
+            long ahead = lastTimestamp + 1 - System.currentTimeMillis();
+            if (ahead > maxBackwardMillis) {
+                // 上一个持有者的时钟比本机快太多，接续会一直触发回拨保护，换下一个
+                log.warn("[订单号] workerId={} 上次发号时间超前本机 {}ms, 跳过", workerId, ahead);
+                stringRedisTemplate.execute(workerLeaseReleaseScript,
+                        List.of(leaseKey, SeckillKeys.workerTimestamp(workerId)),
+                        leaseToken, String.valueOf(lastTimestamp));
+                continue;
+            }
+            stringRedisTemplate.opsForValue().set(SeckillKeys.workerTimestamp(workerId), String.valueOf(validUntil));
+            SnowflakeIdWorker acquired = new SnowflakeIdWorker(workerId, lastTimestamp, maxBackwardMillis);
+            leaseValidUntil = validUntil;
+            worker = acquired;
+            log.info("[订单号] 已申请 workerId={}, 接续时间戳={}", workerId, lastTimestamp);
+            return acquired;
+        }
+        throw new IllegalStateException("没有空闲的订单号 workerId（最多 " + (SnowflakeIdWorker.MAX_WORKER_ID + 1) + " 个节点）");
+    }
+
+    private long validUntil(long start) {
+        return start + TimeUnit.SECONDS.toMillis(leaseSeconds) * 2 / 3;
+    }
+
+    private long lastTimestampOf(int workerId) {
+        String value = stringRedisTemplate.opsForValue().get(SeckillKeys.workerTimestamp(workerId));
+        return value != null ? Long.parseLong(value) : 0L;
+    }
+}
@@ -0,0 +1,216 @@
+package com.seckill.service;
+
+import com.seckill.exception.BusinessException;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 订单在线重新分表工具
+ *
+ * <p>
+ * 把订单从 from 个分表复制到 to 个分表（1 表示未分表的 t_order_info / t_seckill_order），业务不停写。
+ * 目标分表不存在时按原表结构创建（CREATE TABLE ... LIKE）。复制按主键分批读取源表、按 user_id 重新计算分片后批量 upsert，
+ * 可重复执行：重复行只在源行 update_time 更新时才覆盖状态类字段，追平时不会用旧数据盖掉已在新分表上发生的支付、取消；
+ * since 不为空时只复制该时间之后新增或变更的订单（增量追平）。
+ * 已取消订单的秒杀订单记录会从目标表删除，与 doCancelOrder 的语义一致；目标表中订单已取消或已删除的秒杀订单记录不再复制。
+ * </p>
+ *
+ * <p>
+ * 步骤：1) 全量复制 from→to；2) 滚动发布 seckill.order.shards=to；3) 再次执行 from→to 并传入第 1 步的开始时间，
+ * 追平全量复制期间及发布过程中写入旧分表的订单。源表数据不删除，确认无误后由 DBA 清理。
+ * 单节点同时只运行一个任务，进度通过 getStatus 查看。
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OrderReshardService {
+
+    private static final String ORDER_TABLE = "t_order_info";
+    private static final String SECKILL_ORDER_TABLE = "t_seckill_order";
+    private static final String ORDER_COLUMNS =
+            "id, user_id, goods_id, delivery_addr_id, goods_name, goods_count, goods_price, status, pay_time, create_time, update_time, deleted";
+    private static final String SECKILL_ORDER_COLUMNS = "id, user_id, order_id, goods_id, create_time";
+    /** 订单状态：已取消 */
+    private static final int STATUS_CANCELLED = 4;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** 每批读取/写入行数 */
+    @Value("${seckill.order.reshard-batch-size:500}")
+    private int batchSize;
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(r -> {
+        Thread t = new Thread(r, "order-reshard");
+        t.setDaemon(true);
+        return t;
+    });
+
+    private volatile Map<String, Object> status = Map.of("state", "idle");
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交重新分表任务（异步执行）
+     *
+     * @param since 为 null 时全量复制，否则只复制 update_time/create_time 不早于该时间的行
+     */
+    public synchronized void start(int from, int to, LocalDateTime since) {
+        if (from < 1 || to < 1 || from == to) {
+            throw new BusinessException("分表数不合法: from=" + from + ", to=" + to);
+        }
+        if ("running".equals(status.get("state"))) {
+            throw new BusinessException("已有重新分表任务在运行");
+        }
+        updateStatus("running", from, to, since, 0, 0, 0, null);
+        executor.execute(() -> run(from, to, since));
+    }
+
+    public Map<String, Object> getStatus() {
+        return status;
+    }
+
+    private void run(int from, int to, LocalDateTime since) {
+        long start = System.currentTimeMillis();
+        try {
+            createTargetTables(to);
+            long[] counters = new long[3]; // 订单, 秒杀订单, 删除的秒杀订单
+            for (int shard = 0; shard < from; shard++) {
+                copyOrders(OrderSharding.physicalTable(ORDER_TABLE, from, shard), from, to, since, counters);
+            }
+            for (int shard = 0; shard < from; shard++) {
+                copySeckillOrders(OrderSharding.physicalTable(SECKILL_ORDER_TABLE, from, shard), from, to, since, counters);
+            }
+            updateStatus("done", from, to, since, counters[0], counters[1], counters[2], null);
+            log.info("[重新分表] {} → {} 完成, 订单={}, 秒杀订单={}, 删除已取消={}, 耗时={}ms",
+                    from, to, counters[0], counters[1], counters[2], System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("[重新分表] {} → {} 失败", from, to, e);
+            Map<String, Object> failed = new LinkedHashMap<>(status);
+            failed.put("state", "failed");
+            failed.put("error", e.getMessage());
+            status = failed;
+        }
+    }
+
+    private void createTargetTables(int to) {
+        if (to == 1) {
+            return;
+        }
+        for (int shard = 0; shard < to; shard++) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + OrderSharding.physicalTable(ORDER_TABLE, to, shard)
+                    + " LIKE " + ORDER_TABLE);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + OrderSharding.physicalTable(SECKILL_ORDER_TABLE, to, shard)
+                    + " LIKE " + SECKILL_ORDER_TABLE);
+        }
+    }
+
+    private void copyOrders(String source, int from, int to, LocalDateTime since, long[] counters) {
+        String select = "SELECT " + ORDER_COLUMNS + " FROM " + source + " WHERE id > ?"
+                + (since != null ? " AND update_time >= ?" : "") + " ORDER BY id LIMIT ?";
+        long lastId = 0;
+        while (true) {
+            List<Map<String, Object>> rows = since != null
+                    ? jdbcTemplate.queryForList(select, lastId, Timestamp.valueOf(since), batchSize)
+                    : jdbcTemplate.queryForList(select, lastId, batchSize);
+            if (rows.isEmpty()) {
+                return;
+            }
+            Map<Integer, List<Object[]>> byShard = new HashMap<>();
+            for (Map<String, Object> row : rows) {
+                int target = OrderSharding.shardOf(((Number) row.get("user_id")).longValue(), to);
+                byShard.computeIfAbsent(target, k -> new ArrayList<>()).add(new Object[] {
+                        row.get("id"), row.get("user_id"), row.get("goods_id"), row.get("delivery_addr_id"),
+                        row.get("goods_name"), row.get("goods_count"), row.get("goods_price"), row.get("status"),
+                        row.get("pay_time"), row.get("create_time"), row.get("update_time"), row.get("deleted") });
+            }
+            byShard.forEach((target, args) -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO " + OrderSharding.physicalTable(ORDER_TABLE, to, target) + " (" + ORDER_COLUMNS + ")"
+                            + " VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)"
+                            // 只有源行更新时才覆盖；update_time 必须最后赋值，前面的条件比较的是目标行原值
+                            + " ON DUPLICATE KEY UPDATE"
+                            + " status = CASE WHEN VALUES(update_time) > update_time THEN VALUES(status) ELSE status END,"
+                            + " pay_time = CASE WHEN VALUES(update_time) > update_time THEN VALUES(pay_time) ELSE pay_time END,"
+                            + " deleted = CASE WHEN VALUES(update_time) > update_time THEN VALUES(deleted) ELSE deleted END,"
+                            + " update_time = GREATEST(update_time, VALUES(update_time))",
+                    args));
+            counters[0] += rows.size();
+            for (Map<String, Object> row : rows) {
+                if (((Number) row.get("status")).intValue() == STATUS_CANCELLED) {
+                    long userId = ((Number) row.get("user_id")).longValue();
+                    counters[2] += jdbcTemplate.update("DELETE FROM "
+                                    + OrderSharding.physicalTable(SECKILL_ORDER_TABLE, to, OrderSharding.shardOf(userId, to))
+                                    + " WHERE user_id = ? AND goods_id = ? AND order_id = ?",
+                            userId, row.get("goods_id"), row.get("id"));
+                }
+            }
+            lastId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+            updateStatus("running", from, to, since, counters[0], counters[1], counters[2], source);
+        }
+    }
+
+    private void copySeckillOrders(String source, int from, int to, LocalDateTime since, long[] counters) {
+        String select = "SELECT " + SECKILL_ORDER_COLUMNS + " FROM " + source + " WHERE id > ?"
+                + (since != null ? " AND create_time >= ?" : "") + " ORDER BY id LIMIT ?";
+        long lastId = 0;
+        while (true) {
+            List<Map<String, Object>> rows = since != null
+                    ? jdbcTemplate.queryForList(select, lastId, Timestamp.valueOf(since), batchSize)
+                    : jdbcTemplate.queryForList(select, lastId, batchSize);
+            if (rows.isEmpty()) {
+                return;
+            }
+            Map<Integer, List<Object[]>> byShard = new HashMap<>();
+            for (Map<String, Object> row : rows) {
+                int target = OrderSharding.shardOf(((Number) row.get("user_id")).longValue(), to);
+                byShard.computeIfAbsent(target, k -> new ArrayList<>()).add(new Object[] {
+                        row.get("id"), row.get("user_id"), row.get("order_id"), row.get("goods_id"), row.get("create_time"),
+                        row.get("order_id") });
+            }
+            // 订单已先行复制：目标表中订单已取消或已删除（切换后在新分表上取消）的记录不再复制，避免恢复一人一单锁
+            // 用户取消后重新下单：唯一键 (user_id, goods_id) 冲突时以源表的新记录为准
+            byShard.forEach((target, args) -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO " + OrderSharding.physicalTable(SECKILL_ORDER_TABLE, to, target)
+                            + " (" + SECKILL_ORDER_COLUMNS + ") SELECT ?, ?, ?, ?, ? FROM DUAL"
+                            + " WHERE EXISTS (SELECT 1 FROM " + OrderSharding.physicalTable(ORDER_TABLE, to, target)
+                            + " WHERE id = ? AND status <> " + STATUS_CANCELLED + " AND deleted = 0)"
+                            + " ON DUPLICATE KEY UPDATE id = VALUES(id), order_id = VALUES(order_id), create_time = VALUES(create_time)",
+                    args));
+            counters[1] += rows.size();
+            lastId = ((Number) rows.get(rows.size() - 1).get("id")).longValue();
+            updateStatus("running", from, to, since, counters[0], counters[1], counters[2], source);
+        }
+    }
+
+    private void updateStatus(String state, int from, int to, LocalDateTime since,
+            long orders, long seckillOrders, long deleted, String currentTable) {
+        Map<String, Object> next = new LinkedHashMap<>();
+        next.put("state", state);
+        next.put("from", from);
+        next.put("to", to);
+        next.put("since", since);
+        next.put("orders", orders);
+        next.put("seckillOrders", seckillOrders);
+        next.put("deletedCancelled", deleted);
+        next.put("currentTable", currentTable);
+        next.put("updatedAt", LocalDateTime.now());
+        status = next;
+    }
+}
@@ -3,6 +3,7 @@ package com.seckill.service;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.seckill.common.ResultCode;
+import com.seckill.common.SeckillKeys;
 import com.seckill.entity.OrderInfo;
 import com.seckill.entity.SeckillOrder;
 import com.seckill.exception.BusinessException;
@@ -19,6 +20,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -34,6 +36,10 @@ public class OrderService extends ServiceImpl<OrderInfoMapper, OrderInfo> {
     private final SeckillOrderMapper seckillOrderMapper;
     private final SeckillGoodsMapper seckillGoodsMapper;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final SeckillMarkStore markStore;
+    private final ReplicaReads replicaReads;
+    private final OrderSharding orderSharding;
+    private final OrderArchiveService orderArchiveService;
 
     /**
      * P1-3: @Lazy + setter 注入打破循环依赖（Lombok 构造器不传播 @Lazy）
@@ -41,12 +47,8 @@ public class OrderService extends ServiceImpl<OrderInfoMapper, OrderInfo> {
     @Setter(onMethod_ = { @Autowired, @Lazy })
     private SeckillService seckillService;
 
-    private static final String STOCK_KEY = "seckill:stock:";
-    private static final String ORDER_KEY = "seckill:order:";
-    private static final String SECKILL_RESULT_KEY = "seckill:result:";
-
     /**
-     * 获取用户订单列表（支持按状态筛选）
+     * 获取用户订单列表（支持按状态筛选，开启归档时合并归档订单）
      */
     public List<OrderInfo> getUserOrders(Long userId, Integer status) {
         LambdaQueryWrapper<OrderInfo> wrapper = new LambdaQueryWrapper<OrderInfo>()
@@ -55,25 +57,29 @@ public class OrderService extends ServiceImpl<OrderInfoMapper, OrderInfo> {
         if (status != null && status >= 0) {
             wrapper.eq(OrderInfo::getStatus, status);
         }
-        return list(wrapper);
+        return replicaReads.readOwn(userId, () -> orderArchiveService.withArchived(
+                orderSharding.onUser(userId, () -> list(wrapper)), userId, status));
     }
 
     /**
-     * 获取订单详情
+     * 获取订单详情（副本未查到时回主库，秒杀成功后立即查看详情不会误报订单不存在；热表没有时查归档表）
      */
     public OrderInfo getOrderDetail(Long userId, Long orderId) {
-        return getOne(new LambdaQueryWrapper<OrderInfo>()
-                .eq(OrderInfo::getId, orderId)
-                .eq(OrderInfo::getUserId, userId));
+        return replicaReads.readOwn(userId, () -> {
+            OrderInfo order = orderSharding.onUser(userId, () -> getOne(new LambdaQueryWrapper<OrderInfo>()
+                    .eq(OrderInfo::getId, orderId)
+                    .eq(OrderInfo::getUserId, userId)));
+            return order != null ? order : orderArchiveService.findOrder(userId, orderId);
+        });
     }
 
     /**
      * 根据用户ID和商品ID查询秒杀订单
      */
     public SeckillOrder getSeckillOrder(Long userId, Long goodsId) {
-        return seckillOrderMapper.selectOne(new LambdaQueryWrapper<SeckillOrder>()
+        return orderSharding.onUser(userId, () -> seckillOrderMapper.selectOne(new LambdaQueryWrapper<SeckillOrder>()
                 .eq(SeckillOrder::getUserId, userId)
-                .eq(SeckillOrder::getGoodsId, goodsId));
+                .eq(SeckillOrder::getGoodsId, goodsId)));
     }
 
     /**
@@ -89,14 +95,15 @@ public class OrderService extends ServiceImpl<OrderInfoMapper, OrderInfo> {
         if (order.getStatus() != 0) {
             throw new BusinessException(ResultCode.ORDER_ALREADY_PAID);
         }
+        replicaReads.markWritten(userId);
         // 原子条件更新: 只有状态为"未支付(0)"才更新为"已支付(1)"
-        boolean updated = update()
+        boolean updated = orderSharding.onUser(userId, () -> update()
                 .set("status", 1)
                 .set("pay_time", LocalDateTime.now())
                 .eq("id", orderId)
                 .eq("user_id", userId)
                 .eq("status", 0)
-                .update();
+                .update());
         if (!updated) {
             throw new BusinessException("支付失败，订单状态已变更");
         }
@@ -121,10 +128,11 @@ public class OrderService extends ServiceImpl<OrderInfoMapper, OrderInfo> {
 
     /**
      * 超时取消订单（MQ消费者调用）
+     * 延迟消息只带订单号，分表时依次按主键查各分片
      */
     @Transactional(rollbackFor = Exception.class)
     public void timeoutCancelOrder(Long orderId) {
-        OrderInfo order = getById(orderId);
+        OrderInfo order = orderSharding.findFirst(() -> getById(orderId));
         if (order == null || order.getStatus() != 0) {
             return; // 已支付或已取消，不处理
         }
@@ -136,15 +144,19 @@ public class OrderService extends ServiceImpl<OrderInfoMapper, OrderInfo> {
      * 执行取消订单逻辑：更新状态 + 恢复库存
      */
     private void doCancelOrder(OrderInfo order) {
+        replicaReads.markWritten(order.getUserId());
+
         // 1. 更新订单状态为已取消
         order.setStatus(4);
         order.setUpdateTime(LocalDateTime.now());
-        updateById(order);
+        orderSharding.onUser(order.getUserId(), () -> {
+            updateById(order);
 
-        // 1.5 删除对应的唯一的秒杀排他订单记录(seckill_order)，确保用户取消后还可以重新下单！
-        seckillOrderMapper.delete(
-                new LambdaQueryWrapper<SeckillOrder>()
-                        .eq(SeckillOrder::getOrderId, order.getId()));
+            // 1.5 删除对应的唯一的秒杀排他订单记录(seckill_order)，确保用户取消后还可以重新下单！
+            return seckillOrderMapper.delete(
+                    new LambdaQueryWrapper<SeckillOrder>()
+                            .eq(SeckillOrder::getOrderId, order.getId()));
+        });
 
         // 2. 恢复数据库库存
         if (order.getGoodsId() != null) {
@@ -152,16 +164,14 @@ public class OrderService extends ServiceImpl<OrderInfoMapper, OrderInfo> {
         }
 
         // 3. 恢复Redis库存
-        String stockKey = STOCK_KEY + order.getGoodsId();
+        String stockKey = SeckillKeys.stock(order.getGoodsId());
         redisTemplate.opsForValue().increment(stockKey, 1);
 
         // 4. 清除秒杀相关Redis标记（允许用户再次秒杀）
-        String orderKey = ORDER_KEY + order.getUserId() + ":" + order.getGoodsId();
-        redisTemplate.delete(orderKey);
+        markStore.clearMark(order.getUserId(), order.getGoodsId());
 
         // 5. 清除秒杀结果缓存
-        String resultKey = SECKILL_RESULT_KEY + order.getUserId() + ":" + order.getGoodsId();
-        redisTemplate.delete(resultKey);
+        markStore.clearResult(order.getUserId(), order.getGoodsId());
 
         // 6. P1-3 修复: 清除内存中的售罄标记，否则库存恢复后新请求仍会被拒绝
         if (order.getGoodsId() != null) {
@@ -170,17 +180,49 @@ public class OrderService extends ServiceImpl<OrderInfoMapper, OrderInfo> {
     }
 
     /**
-     * 用户订单统计
+     * 用户订单统计（含归档订单）
      */
     public Map<String, Object> getOrderStats(Long userId) {
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("total", count(new LambdaQueryWrapper<OrderInfo>().eq(OrderInfo::getUserId, userId)));
-        stats.put("unpaid", count(
-                new LambdaQueryWrapper<OrderInfo>().eq(OrderInfo::getUserId, userId).eq(OrderInfo::getStatus, 0)));
-        stats.put("paid", count(
-                new LambdaQueryWrapper<OrderInfo>().eq(OrderInfo::getUserId, userId).eq(OrderInfo::getStatus, 1)));
-        stats.put("cancelled", count(
-                new LambdaQueryWrapper<OrderInfo>().eq(OrderInfo::getUserId, userId).eq(OrderInfo::getStatus, 4)));
-        return stats;
+        return replicaReads.readOwn(userId, () -> orderSharding.onUser(userId, () -> {
+            Map<String, Object> stats = new HashMap<>();
+            stats.put("total", count(new LambdaQueryWrapper<OrderInfo>().eq(OrderInfo::getUserId, userId))
+                    + orderArchiveService.countByUser(userId, null));
+            stats.put("unpaid", count(
+                    new LambdaQueryWrapper<OrderInfo>().eq(OrderInfo::getUserId, userId).eq(OrderInfo::getStatus, 0)));
+            stats.put("paid", count(
+                    new LambdaQueryWrapper<OrderInfo>().eq(OrderInfo::getUserId, userId).eq(OrderInfo::getStatus, 1))
+                    + orderArchiveService.countByUser(userId, 1));
+            stats.put("cancelled", count(
+                    new LambdaQueryWrapper<OrderInfo>().eq(OrderInfo::getUserId, userId).eq(OrderInfo::getStatus, 4))
+                    + orderArchiveService.countByUser(userId, 4));
+            return stats;
+        }));
+    }
+
+    /**
+     * 全部订单数（管理后台，分表时汇总各分片，含归档订单）
+     *
+     * @param status 为 null 时不按状态过滤
+     */
+    public long countAllOrders(Integer status) {
+        return orderSharding.sum(() -> count(new LambdaQueryWrapper<OrderInfo>()
+                .eq(status != null, OrderInfo::getStatus, status)))
+                + orderArchiveService.countAll(status);
+    }
+
+    /**
+     * 全部订单列表（管理后台，分表时汇总各分片后按创建时间倒序；只含热表中的近期订单）
+     */
+    public List<OrderInfo> listAllOrders(Integer status) {
+        LambdaQueryWrapper<OrderInfo> wrapper = new LambdaQueryWrapper<OrderInfo>()
+                .orderByDesc(OrderInfo::getCreateTime);
+        if (status != null && status >= 0) {
+            wrapper.eq(OrderInfo::getStatus, status);
+        }
+        List<OrderInfo> orders = orderSharding.gather(() -> list(wrapper));
+        if (orderSharding.isSharded()) {
+            orders.sort(Comparator.comparing(OrderInfo::getCreateTime, Comparator.nullsLast(Comparator.reverseOrder())));
+        }
+        return orders;
     }
 }
@@ -0,0 +1,127 @@
+package com.seckill.service;
+
+import com.seckill.utils.OrderShardContext;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * 订单分表路由
+ *
+ * <p>
+ * 问题背景：t_order_info、t_seckill_order 随活动累积成为最大的两张表，二级索引越来越深，开抢时的写入越来越慢。
+ * 开启 seckill.order.shards=N（N>1）后两张表各拆成 N 张物理表 t_order_info_{i}、t_seckill_order_{i}，
+ * i = user_id mod N，同一用户的订单和秒杀订单落在同一编号的分表，单表规模约为原来的 1/N。
+ * </p>
+ *
+ * <p>
+ * 用法：按用户访问时用 onUser 包住 Mapper/Service 调用，MyBatis-Plus 动态表名插件按当前分片改写表名；
+ * 管理后台等不带用户ID的查询用 gather / sum / findFirst 依次在每个分片上执行后合并（与只读副本路由共用当前线程，不并行）。
+ * 分片数为 1 时表名不改写，与未分表时完全一致；分表后未指定分片访问订单表会直接报错，避免静默查错表。
+ * </p>
+ */
+@Component
+public class OrderSharding {
+
+    /** 按用户分表的逻辑表名 */
+    public static final Set<String> SHARDED_TABLES = Set.of("t_order_info", "t_seckill_order");
+
+    /** 订单分表数，1 表示不分表 */
+    @Value("${seckill.order.shards:1}")
+    private int shards;
+
+    public int getShards() {
+        return shards;
+    }
+
+    public boolean isSharded() {
+        return shards > 1;
+    }
+
+    /**
+     * 用户所在分片
+     */
+    public static int shardOf(Long userId, int shards) {
+        return (int) Math.floorMod(userId, (long) shards);
+    }
+
+    /**
+     * 物理表名：不分表时即逻辑表名
+     */
+    public static String physicalTable(String logicalTable, int shards, int shard) {
+        return shards > 1 ? logicalTable + "_" + shard : logicalTable;
+    }
+
+    /**
+     * 动态表名插件回调：把订单表改写为当前分片的物理表
+     */
+    public String resolve(String tableName) {
+        if (!SHARDED_TABLES.contains(tableName)) {
+            return tableName;
+        }
+        Integer shard = OrderShardContext.current();
+        if (shard == null) {
+            throw new IllegalStateException("访问订单表 " + tableName + " 未指定分片，请通过 OrderSharding 按用户路由或遍历分片");
+        }
+        return physicalTable(tableName, shards, shard);
+    }
+
+    /**
+     * 在用户所在分片上执行
+     */
+    public <T> T onUser(Long userId, Supplier<T> action) {
+        if (!isSharded()) {
+            return action.get();
+        }
+        return OrderShardContext.on(shardOf(userId, shards), action);
+    }
+
+    /**
+     * 依次在每个分片上查询并合并结果（顺序不保证，需要排序由调用方处理）
+     */
+    public <T> List<T> gather(Supplier<List<T>> query) {
+        if (!isSharded()) {
+            return query.get();
+        }
+        List<T> merged = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            merged.addAll(OrderShardContext.on(i, query));
+        }
+        return merged;
+    }
+
+    /**
+     * 依次在每个分片上计数并求和
+     */
+    public long sum(Supplier<Long> count) {
+        if (!isSharded()) {
+            return count.get();
+        }
+        long total = 0;
+        for (int i = 0; i < shards; i++) {
+            Long value = OrderShardContext.on(i, count);
+            total += value != null ? value : 0L;
+        }
+        return total;
+    }
+
+    /**
+     * 不知道用户时按主键查找：依次查询各分片，返回第一个非 null 结果（订单号全局唯一）
+     */
+    public <T> T findFirst(Supplier<T> query) {
+        if (!isSharded()) {
+            return query.get();
+        }
+        for (int i = 0; i < shards; i++) {
+            T result = OrderShardContext.on(i, query);
+            if (result != null) {
+                return result;
+            }
+        }
+        return null;
+    }
+}
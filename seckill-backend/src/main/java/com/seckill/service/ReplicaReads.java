@@ -0,0 +1,126 @@
+package com.seckill.service;
+
+import com.seckill.config.ReplicaLagMonitor;
+import com.seckill.metrics.SeckillMetrics;
+import com.seckill.utils.DataSourceRouting;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 只读副本查询入口
+ *
+ * <p>
+ * - read: 可容忍秒级滞后的查询（管理后台统计、商品列表）
+ * - readOrPrimary: 副本未查到（返回 null）时回主库再查一次，避免把"刚写入还没复制过来"当成不存在
+ * - readOwn: 用户自己的数据。用户刚下单/支付/取消后的 pin-ms 内直接读主库（读己之写），
+ *   标记存 Redis seckill:user:rw:{userId}，下单的消费端和查询的 Web 节点不是同一台也能生效
+ * </p>
+ *
+ * <p>
+ * 未开启读写分离、副本延迟超限或处于写事务中时，全部直接在主库执行；副本查询出错时立即停用副本并回主库重试。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReplicaReads {
+
+    private static final String RECENT_WRITE_KEY = "seckill:user:rw:";
+
+    private final ObjectProvider<ReplicaLagMonitor> lagMonitorProvider;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final SeckillMetrics seckillMetrics;
+
+    /** 用户写入后读主库的时长(毫秒)，需大于允许的最大复制延迟 */
+    @Value("${seckill.datasource.replica.pin-ms:3000}")
+    private long pinMillis;
+
+    /**
+     * 可容忍滞后的查询
+     */
+    public <T> T read(Supplier<T> query) {
+        ReplicaLagMonitor monitor = lagMonitorProvider.getIfAvailable();
+        if (monitor == null || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        if (!monitor.isUsable()) {
+            seckillMetrics.countReplicaFallback("unavailable");
+            return query.get();
+        }
+        try {
+            return DataSourceRouting.onReplica(query);
+        } catch (DataAccessException e) {
+            monitor.markUnusable(e.getMessage());
+            seckillMetrics.countReplicaFallback("error");
+            return DataSourceRouting.onPrimary(query);
+        }
+    }
+
+    /**
+     * 副本未查到时回主库
+     */
+    public <T> T readOrPrimary(Supplier<T> query) {
+        T result = read(query);
+        if (result != null || !replicaUsable() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return result;
+        }
+        seckillMetrics.countReplicaFallback("miss");
+        return DataSourceRouting.onPrimary(query);
+    }
+
+    /**
+     * 查询用户自己的数据（读己之写）
+     */
+    public <T> T readOwn(Long userId, Supplier<T> query) {
+        if (!replicaEnabled() || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return query.get();
+        }
+        if (recentlyWrote(userId)) {
+            seckillMetrics.countReplicaFallback("pinned");
+            return DataSourceRouting.onPrimary(query);
+        }
+        return readOrPrimary(query);
+    }
+
+    /**
+     * 记录用户刚写入订单数据，之后 pin-ms 内该用户的查询读主库
+     * 在写事务提交前调用，提交后立刻发起的查询也不会读到副本上的旧数据
+     */
+    public void markWritten(Long userId) {
+        if (!replicaEnabled() || userId == null) {
+            return;
+        }
+        try {
+            stringRedisTemplate.opsForValue().set(RECENT_WRITE_KEY + userId, "1", pinMillis, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+            log.warn("记录用户写入标记失败: userId={}", userId);
+        }
+    }
+
+    private boolean recentlyWrote(Long userId) {
+        try {
+            return Boolean.TRUE.equals(stringRedisTemplate.hasKey(RECENT_WRITE_KEY + userId));
+        } catch (Exception e) {
+            // 判断不了就按刚写过处理，宁可多读一次主库
+            return true;
+        }
+    }
+
+    private boolean replicaEnabled() {
+        return lagMonitorProvider.getIfAvailable() != null;
+    }
+
+    private boolean replicaUsable() {
+        ReplicaLagMonitor monitor = lagMonitorProvider.getIfAvailable();
+        return monitor != null && monitor.isUsable();
+    }
+}
@@ -0,0 +1,160 @@
+package com.seckill.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.seckill.entity.SeckillGoods;
+import com.seckill.mapper.SeckillGoodsMapper;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 秒杀商品本地只读快照（供 MQ 消费端使用）
+ *
+ * <p>
+ * 问题背景：executeSeckill 每条消息都 selectById 一次，只为校验状态、结束时间和取商品名/秒杀价，
+ * 这些数据活动期间几乎不变，库存则随后由 reduceStock 的影响行数判断，高峰期每单白白多一次主键查询。
+ * </p>
+ *
+ * <p>
+ * 方案：启动时预加载进行中的商品，未命中时按需加载；GoodsService 修改商品、SeckillStatusScheduler 切换活动状态后
+ * 在事务提交后失效本地条目并通过 Redis Pub/Sub 广播（"goodsId" 或 "*"），各节点下次访问时重新加载。
+ * 快照带版本号：加载开始后发生过失效的结果只返回给本次调用、不写入快照，避免把失效前读到的旧数据缓存下来。
+ * 广播丢失时条目最长 max-age 后自动重新加载。快照中的库存字段不可用于判断库存。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillGoodsSnapshot implements MessageListener {
+
+    /** 商品变更广播频道，消息体 "goodsId"，"*" 表示全部失效 */
+    public static final String GOODS_CHANNEL = "seckill:channel:goods";
+    private static final String ALL = "*";
+
+    private final SeckillGoodsMapper seckillGoodsMapper;
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    /** 快照条目最长存活时间(毫秒)，广播丢失时的兜底 */
+    @Value("${seckill.goods-snapshot.max-age-ms:60000}")
+    private long maxAgeMs;
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    /** 每次失效递增 */
+    private final AtomicLong version = new AtomicLong();
+
+    @PostConstruct
+    public void preload() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(GOODS_CHANNEL));
+        List<SeckillGoods> list = seckillGoodsMapper.selectList(
+                new LambdaQueryWrapper<SeckillGoods>()
+                        .eq(SeckillGoods::getSeckillStatus, 1)
+                        .eq(SeckillGoods::getGoodsStatus, 1));
+        for (SeckillGoods sg : list) {
+            entries.put(sg.getId(), new Entry(sg, System.currentTimeMillis()));
+        }
+        log.info("秒杀商品快照预加载完成, 共 {} 个进行中的商品", list.size());
+    }
+
+    /**
+     * 读取商品快照，未命中或已过期时从数据库加载；商品不存在返回 null
+     */
+    public SeckillGoods get(Long seckillGoodsId) {
+        Entry entry = entries.get(seckillGoodsId);
+        long now = System.currentTimeMillis();
+        if (entry != null && now - entry.loadedAt() < maxAgeMs) {
+            return entry.goods();
+        }
+        long loadVersion = version.get();
+        SeckillGoods sg = seckillGoodsMapper.selectById(seckillGoodsId);
+        if (sg == null) {
+            entries.remove(seckillGoodsId);
+            return null;
+        }
+        // 加载期间没有发生失效才写入快照
+        if (version.get() == loadVersion) {
+            entries.put(seckillGoodsId, new Entry(sg, now));
+        }
+        return sg;
+    }
+
+    /**
+     * 失效单个商品并广播；处于事务中时延迟到提交后执行，避免其它节点读到未提交前的旧数据再缓存
+     */
+    public void invalidate(Long seckillGoodsId) {
+        afterCommit(() -> {
+            evictLocally(String.valueOf(seckillGoodsId));
+            broadcast(String.valueOf(seckillGoodsId));
+        });
+    }
+
+    /**
+     * 失效全部商品并广播（活动状态批量切换后调用）
+     */
+    public void invalidateAll() {
+        afterCommit(() -> {
+            evictLocally(ALL);
+            broadcast(ALL);
+        });
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        evictLocally(new String(message.getBody(), StandardCharsets.UTF_8));
+    }
+
+    private void evictLocally(String target) {
+        version.incrementAndGet();
+        if (ALL.equals(target)) {
+            entries.clear();
+            return;
+        }
+        try {
+            entries.remove(Long.valueOf(target));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析商品变更广播: {}", target);
+        }
+    }
+
+    private void broadcast(String target) {
+        try {
+            stringRedisTemplate.convertAndSend(GOODS_CHANNEL, target);
+        } catch (Exception e) {
+            log.warn("广播商品变更失败: {}", target, e);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 快照条目
+     */
+    private record Entry(SeckillGoods goods, long loadedAt) {
+    }
+}
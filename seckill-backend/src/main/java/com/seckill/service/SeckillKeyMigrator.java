@@ -0,0 +1,97 @@
+package com.seckill.service;
+
+import com.seckill.common.SeckillKeys;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * 旧格式秒杀 key 迁移
+ *
+ * <p>
+ * 切换到 hash tag 格式（见 SeckillKeys）后，运行中活动的库存、排队号、订单标记、秒杀结果等仍是旧格式 key，
+ * 新代码读不到会导致重复下单、结果丢失。开启 seckill.keys.migrate-legacy 后，
+ * 节点启动时（早于库存预热）SCAN 旧格式 key 并 RENAMENX 为新格式，TTL 随 key 保留；
+ * 新 key 已存在（其它节点已迁移或新代码已写入）时以新 key 为准，删除旧 key。
+ * </p>
+ *
+ * <p>
+ * 迁移需在切换到 Redis Cluster 之前、仍连接单机实例时完成（滚动发布第一台新版本节点即可），
+ * 之后再导入集群。验证码、秒杀路径、商品缓存有效期只有几分钟，不迁移，自然过期。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SeckillKeyMigrator {
+
+    private static final long SCAN_COUNT = 1000;
+
+    /** 旧格式 → 新格式 */
+    private static final List<Rule> RULES = List.of(
+            new Rule("seckill:stock:*", "seckill:stock:(\\d+)", m -> SeckillKeys.stock(id(m, 1))),
+            new Rule("seckill:ticket:*", "seckill:ticket:(\\d+)", m -> SeckillKeys.ticket(id(m, 1))),
+            new Rule("seckill:queue:done:*", "seckill:queue:done:(\\d+)", m -> SeckillKeys.queueDone(id(m, 1))),
+            new Rule("seckill:order:*", "seckill:order:(\\d+):(\\d+)", m -> SeckillKeys.order(id(m, 1), id(m, 2))),
+            new Rule("seckill:result:*", "seckill:result:(\\d+):(\\d+)", m -> SeckillKeys.result(id(m, 1), id(m, 2))),
+            new Rule("seckill:buyers:*", "seckill:buyers:(\\d+)", m -> SeckillKeys.buyers(id(m, 1))),
+            new Rule("seckill:results:*", "seckill:results:(\\d+)", m -> SeckillKeys.results(id(m, 1))),
+            new Rule("seckill:consumed:*", "seckill:consumed:(\\d+)", m -> SeckillKeys.consumed(id(m, 1))),
+            new Rule("seckill:warmup:*", "seckill:warmup:(\\d+)", m -> SeckillKeys.warmup(id(m, 1))));
+
+    private final StringRedisTemplate stringRedisTemplate;
+
+    /** 是否在启动时迁移旧格式 key */
+    @Value("${seckill.keys.migrate-legacy:false}")
+    private boolean migrateLegacy;
+
+    @PostConstruct
+    public void migrate() {
+        if (!migrateLegacy) {
+            return;
+        }
+        int renamed = 0;
+        int dropped = 0;
+        for (Rule rule : RULES) {
+            ScanOptions options = ScanOptions.scanOptions().match(rule.scanPattern()).count(SCAN_COUNT).build();
+            try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+                while (cursor.hasNext()) {
+                    String legacyKey = cursor.next();
+                    Matcher m = rule.legacy().matcher(legacyKey);
+                    if (!m.matches()) {
+                        continue;
+                    }
+                    if (Boolean.TRUE.equals(stringRedisTemplate.renameIfAbsent(legacyKey, rule.target().apply(m)))) {
+                        renamed++;
+                    } else {
+                        stringRedisTemplate.delete(legacyKey);
+                        dropped++;
+                    }
+                }
+            } catch (Exception e) {
+                log.error("[Key迁移] 迁移 {} 失败", rule.scanPattern(), e);
+            }
+        }
+        log.info("[Key迁移] 旧格式秒杀 key 迁移完成, 重命名 {} 个, 丢弃 {} 个(新 key 已存在)", renamed, dropped);
+    }
+
+    private static Long id(Matcher m, int group) {
+        return Long.valueOf(m.group(group));
+    }
+
+    private record Rule(String scanPattern, Pattern legacy, Function<Matcher, String> target) {
+        Rule(String scanPattern, String legacy, Function<Matcher, String> target) {
+            this(scanPattern, Pattern.compile(legacy), target);
+        }
+    }
+}
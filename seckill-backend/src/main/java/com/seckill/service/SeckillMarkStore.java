@@ -0,0 +1,142 @@
+package com.seckill.service;
+
+import com.seckill.common.SeckillKeys;
+import com.seckill.entity.SeckillGoods;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 秒杀订单标记与结果存储
+ *
+ * <p>
+ * 存储模式 (seckill.storage.mode):
+ * - keys: 每个用户一个订单标记 seckill:{goodsId}:order:{userId} 和一个结果 seckill:{goodsId}:result:{userId}，各自 24h TTL
+ * - compact: 订单标记为按商品一个位图 seckill:{goodsId}:buyers（偏移量即 userId，需为自增数值ID），
+ *            结果为按商品一个 Hash seckill:{goodsId}:results（field 为 userId），
+ *            二者在活动结束时间 + 保留期统一过期；大型活动下省去每个用户两个 key 的对象头和过期字典开销
+ * </p>
+ *
+ * <p>
+ * 两种模式下重复判断与库存预减都在同一个 Lua 脚本内原子完成。
+ * hmac 路径模式下脚本同时检查并记录令牌 nonce（seckill:{goodsId}:nonce:{nonce}，保留到令牌过期），
+ * 订单标记因失败补偿或取消订单被清除后，同一令牌仍不能再次受理，需重新获取路径。
+ * keys 模式的标记值为令牌 nonce（redis 路径模式下为 "1"）。
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class SeckillMarkStore {
+
+    private static final String MODE_COMPACT = "compact";
+    /** 订单标记、秒杀结果保留时长: 24小时 */
+    private static final long RETENTION_SECONDS = 24 * 3600;
+    /** redis 路径模式下订单标记的值 */
+    private static final String DEFAULT_ORDER_MARK = "1";
+
+    /** 抢购链路专用连接（舱壁开启时为独立连接池） */
+    private final RedisTemplate<String, Object> purchaseRedisTemplate;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> seckillScript;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> seckillCompactScript;
+    private final SeckillGoodsSnapshot goodsSnapshot;
+
+    /** 存储模式: keys / compact */
+    @Value("${seckill.storage.mode:keys}")
+    private String storageMode;
+
+    /**
+     * 执行秒杀 Lua：重复判断 + 令牌 nonce 判断 + 库存预减 + 写订单标记 + 发放排队号
+     *
+     * @param pathNonce       hmac 路径模式下的令牌 nonce，redis 路径模式传 null
+     * @param nonceTtlSeconds nonce 保留时长，不短于令牌有效期
+     * @return {结果, 剩余库存}
+     */
+    public List<?> acquire(Long userId, Long seckillGoodsId, String pathNonce, long nonceTtlSeconds) {
+        String stockKey = SeckillKeys.stock(seckillGoodsId);
+        String ticketKey = SeckillKeys.ticket(seckillGoodsId);
+        String markKey = isCompact() ? SeckillKeys.buyers(seckillGoodsId) : SeckillKeys.order(userId, seckillGoodsId);
+        List<String> keys = pathNonce != null
+                ? Arrays.asList(stockKey, markKey, ticketKey, SeckillKeys.pathNonce(seckillGoodsId, pathNonce))
+                : Arrays.asList(stockKey, markKey, ticketKey);
+        if (isCompact()) {
+            return purchaseRedisTemplate.execute(seckillCompactScript, keys,
+                    expireAtSeconds(seckillGoodsId), userId, seckillGoodsId, nonceTtlSeconds);
+        }
+        return purchaseRedisTemplate.execute(seckillScript, keys,
+                RETENTION_SECONDS, pathNonce != null ? pathNonce : DEFAULT_ORDER_MARK, seckillGoodsId, nonceTtlSeconds);
+    }
+
+    /**
+     * 清除订单标记，允许用户重新抢购
+     */
+    public void clearMark(Long userId, Long seckillGoodsId) {
+        if (isCompact()) {
+            purchaseRedisTemplate.opsForValue().setBit(SeckillKeys.buyers(seckillGoodsId), userId, false);
+        } else {
+            purchaseRedisTemplate.delete(SeckillKeys.order(userId, seckillGoodsId));
+        }
+    }
+
+    /**
+     * 读取秒杀结果
+     *
+     * @return orderId-成功 -1-失败 null-尚无结果
+     */
+    public Long getResult(Long userId, Long seckillGoodsId) {
+        Object result = isCompact()
+                ? purchaseRedisTemplate.opsForHash().get(SeckillKeys.results(seckillGoodsId), String.valueOf(userId))
+                : purchaseRedisTemplate.opsForValue().get(SeckillKeys.result(userId, seckillGoodsId));
+        return result != null ? Long.valueOf(result.toString()) : null;
+    }
+
+    /**
+     * 写入秒杀结果
+     */
+    public void setResult(Long userId, Long seckillGoodsId, Long orderId) {
+        if (isCompact()) {
+            String key = SeckillKeys.results(seckillGoodsId);
+            purchaseRedisTemplate.opsForHash().put(key, String.valueOf(userId), orderId);
+            purchaseRedisTemplate.expireAt(key, new Date(expireAtSeconds(seckillGoodsId) * 1000));
+        } else {
+            purchaseRedisTemplate.opsForValue().set(SeckillKeys.result(userId, seckillGoodsId),
+                    orderId, RETENTION_SECONDS, TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * 清除秒杀结果
+     */
+    public void clearResult(Long userId, Long seckillGoodsId) {
+        if (isCompact()) {
+            purchaseRedisTemplate.opsForHash().delete(SeckillKeys.results(seckillGoodsId), String.valueOf(userId));
+        } else {
+            purchaseRedisTemplate.delete(SeckillKeys.result(userId, seckillGoodsId));
+        }
+    }
+
+    private boolean isCompact() {
+        return MODE_COMPACT.equalsIgnoreCase(storageMode);
+    }
+
+    /**
+     * 按商品聚合的结构的过期时刻：活动结束时间 + 保留期（取本地商品快照，不查库）
+     */
+    private long expireAtSeconds(Long seckillGoodsId) {
+        SeckillGoods sg = goodsSnapshot.get(seckillGoodsId);
+        long base = sg != null && sg.getEndDate() != null
+                ? sg.getEndDate().atZone(ZoneId.systemDefault()).toEpochSecond()
+                : Instant.now().getEpochSecond();
+        return Math.max(base, Instant.now().getEpochSecond()) + RETENTION_SECONDS;
+    }
+}
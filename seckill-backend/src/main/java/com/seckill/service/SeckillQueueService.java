@@ -0,0 +1,156 @@
+package com.seckill.service;
+
+import com.seckill.common.SeckillKeys;
+import com.seckill.vo.QueueStatusVo;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 秒杀排队进度服务
+ *
+ * <p>
+ * 排队号：doSeckill 的 Lua 脚本在扣减库存的同时 INCR seckill:{goodsId}:ticket，为每个受理的请求发放单调递增的排队号。
+ * 处理水位：消费端每处理完一条消息（成功、失败、补偿均算）INCR seckill:{goodsId}:done。
+ * 前方人数 = 排队号 - 已处理数；消费端并发处理时消息并非严格按号完成，因此用"已处理数"而不是"最大已处理号"作为水位。
+ * </p>
+ *
+ * <p>
+ * 消费速率：各节点每秒对有人查询的商品采样一次处理水位，按指数加权平均平滑，
+ * 据此估算等待时间，并给出下次查询的建议间隔（离出结果越远，间隔越长）。
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeckillQueueService {
+
+    /** EWMA 平滑系数 */
+    private static final double EWMA_ALPHA = 0.3;
+    private static final long MIN_POLL_INTERVAL_MS = 1000;
+    private static final long MAX_POLL_INTERVAL_MS = 15000;
+    /** 超过该时长无人查询的商品停止采样 */
+    private static final long SAMPLE_IDLE_MILLIS = 60_000;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /** 无法估算时的默认轮询间隔(毫秒) */
+    @Value("${seckill.result.poll-interval-ms:2000}")
+    private long defaultPollIntervalMs;
+
+    /** 本节点正在采样的商品：seckillGoodsId → 消费速率 */
+    private final Map<Long, DrainRate> drainRates = new ConcurrentHashMap<>();
+
+    /**
+     * 消费端处理完一条秒杀消息（无论成败）后推进处理水位
+     */
+    public void markProcessed(Long seckillGoodsId) {
+        redisTemplate.opsForValue().increment(SeckillKeys.queueDone(seckillGoodsId));
+    }
+
+    /**
+     * 库存首次加载或管理端重新加载时同步清零排队号和处理水位
+     * 活动进行中不能调用：其它节点仍在发号、消费端仍在推进水位，清零后排队位置跳变，处理水位可能超过排队号
+     */
+    public void reset(Long seckillGoodsId) {
+        redisTemplate.delete(Arrays.asList(SeckillKeys.ticket(seckillGoodsId), SeckillKeys.queueDone(seckillGoodsId)));
+        drainRates.remove(seckillGoodsId);
+    }
+
+    /**
+     * 查询排队进度
+     */
+    public QueueStatusVo getQueueStatus(Long seckillGoodsId, Long ticket) {
+        long processed = readCounter(SeckillKeys.queueDone(seckillGoodsId));
+        DrainRate drainRate = drainRates.computeIfAbsent(seckillGoodsId, id -> new DrainRate(processed));
+        drainRate.lastAccessMillis = System.currentTimeMillis();
+
+        long position = Math.max(ticket - processed, 0);
+        double rate = drainRate.ratePerSecond;
+        long eta = rate > 0 ? (long) Math.ceil(position / rate) : -1;
+
+        QueueStatusVo vo = new QueueStatusVo();
+        vo.setTicket(ticket);
+        vo.setProcessed(processed);
+        vo.setPosition(position);
+        vo.setDrainRate(rate > 0 ? rate : -1);
+        vo.setEtaSeconds(eta);
+        vo.setPollIntervalMs(pollInterval(eta));
+        return vo;
+    }
+
+    /**
+     * 根据排队号给出建议的轮询间隔；未携带排队号时返回默认间隔
+     */
+    public long suggestPollInterval(Long seckillGoodsId, Long ticket) {
+        if (ticket == null) {
+            return defaultPollIntervalMs;
+        }
+        return getQueueStatus(seckillGoodsId, ticket).getPollIntervalMs();
+    }
+
+    /**
+     * 每秒采样一次处理水位，更新消费速率
+     */
+    @Scheduled(fixedRate = 1000)
+    public void sampleDrainRate() {
+        long now = System.currentTimeMillis();
+        drainRates.entrySet().removeIf(e -> now - e.getValue().lastAccessMillis > SAMPLE_IDLE_MILLIS);
+        for (Map.Entry<Long, DrainRate> entry : drainRates.entrySet()) {
+            try {
+                entry.getValue().sample(readCounter(SeckillKeys.queueDone(entry.getKey())));
+            } catch (Exception e) {
+                log.debug("采样消费速率失败: seckillGoodsId={}", entry.getKey());
+            }
+        }
+    }
+
+    private long pollInterval(long etaSeconds) {
+        if (etaSeconds < 0) {
+            return defaultPollIntervalMs;
+        }
+        // 预计等待时间的一半后再来问，离结果越近问得越勤
+        return Math.max(MIN_POLL_INTERVAL_MS, Math.min(MAX_POLL_INTERVAL_MS, etaSeconds * 500));
+    }
+
+    private long readCounter(String key) {
+        Object value = redisTemplate.opsForValue().get(key);
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+
+    /**
+     * 单个商品的消费速率（EWMA）
+     */
+    private static final class DrainRate {
+        private long lastProcessed;
+        private long lastSampleNanos;
+        private volatile double ratePerSecond;
+        private volatile long lastAccessMillis;
+
+        private DrainRate(long processed) {
+            this.lastProcessed = processed;
+            this.lastSampleNanos = System.nanoTime();
+            this.lastAccessMillis = System.currentTimeMillis();
+        }
+
+        private synchronized void sample(long processed) {
+            long now = System.nanoTime();
+            double seconds = (now - lastSampleNanos) / 1_000_000_000.0;
+            if (seconds <= 0) {
+                return;
+            }
+            // 水位被重置时（重新上架）只更新基线
+            double instant = processed >= lastProcessed ? (processed - lastProcessed) / seconds : 0;
+            ratePerSecond = ratePerSecond == 0 ? instant : EWMA_ALPHA * instant + (1 - EWMA_ALPHA) * ratePerSecond;
+            lastProcessed = processed;
+            lastSampleNanos = now;
+        }
+    }
+}
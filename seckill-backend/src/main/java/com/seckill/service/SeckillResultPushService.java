@@ -0,0 +1,156 @@
+package com.seckill.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 秒杀结果推送服务（SSE）
+ *
+ * <p>
+ * 问题背景：排队用户每 2 秒轮询一次 /seckill/result，每次轮询都要走 JWT 校验 + 两次 Redis GET，
+ * 排队人数多时轮询流量远大于秒杀本身。
+ * </p>
+ *
+ * <p>
+ * 方案：用户进入结果页后建立一条 SSE 长连接，连接只登记在所在节点的内存表中（key → SseEmitter，无额外线程）；
+ * 消费端写入结果后通过 Redis Pub/Sub 广播 "userId:goodsId:result"，
+ * 每个节点只推送自己持有的连接，推送完成即关闭连接。轮询接口保留作为降级手段。
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeckillResultPushService implements MessageListener {
+
+    /** 秒杀结果广播频道 */
+    public static final String RESULT_CHANNEL = "seckill:channel:result";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    /** SSE 连接超时(毫秒)，超时后前端退回轮询 */
+    @Value("${seckill.result.sse-timeout-ms:60000}")
+    private long sseTimeoutMs;
+
+    /** 建议前端的重连/轮询间隔(毫秒) */
+    @Value("${seckill.result.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    /** 本节点持有的连接：userId:goodsId → emitter */
+    private final ConcurrentHashMap<String, SseEmitter> emitters = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribeChannel() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(RESULT_CHANNEL));
+    }
+
+    /**
+     * 登记一条结果推送连接（同一用户同一商品只保留最新一条）
+     */
+    public SseEmitter subscribe(Long userId, Long seckillGoodsId) {
+        String key = key(userId, seckillGoodsId);
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        emitter.onCompletion(() -> emitters.remove(key, emitter));
+        emitter.onTimeout(() -> {
+            emitters.remove(key, emitter);
+            emitter.complete();
+        });
+        emitter.onError(e -> emitters.remove(key, emitter));
+
+        SseEmitter previous = emitters.put(key, emitter);
+        if (previous != null) {
+            previous.complete();
+        }
+        return emitter;
+    }
+
+    /**
+     * 向本节点上的连接推送最终结果并关闭连接
+     *
+     * @param result orderId-成功 -1-失败
+     */
+    public void deliver(Long userId, Long seckillGoodsId, Long result) {
+        SseEmitter emitter = emitters.remove(key(userId, seckillGoodsId));
+        if (emitter == null) {
+            return;
+        }
+        try {
+            emitter.send(SseEmitter.event()
+                    .name("result")
+                    .reconnectTime(pollIntervalMs)
+                    .data(result));
+            emitter.complete();
+        } catch (IOException | IllegalStateException e) {
+            // 客户端已断开，前端会退回轮询
+            log.debug("推送秒杀结果失败: userId={}, seckillGoodsId={}", userId, seckillGoodsId);
+            emitter.completeWithError(e);
+        }
+    }
+
+    /**
+     * 广播秒杀结果；处于事务中时延迟到提交后再广播，避免推送了随后被回滚的订单
+     */
+    public void publish(Long userId, Long seckillGoodsId, Long result) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doPublish(userId, seckillGoodsId, result);
+                }
+            });
+        } else {
+            doPublish(userId, seckillGoodsId, result);
+        }
+    }
+
+    /**
+     * 当前节点持有的连接数
+     */
+    public int connectionCount() {
+        return emitters.size();
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Object body = redisTemplate.getValueSerializer().deserialize(message.getBody());
+        if (body == null) {
+            return;
+        }
+        String[] parts = body.toString().split(":");
+        if (parts.length != 3) {
+            return;
+        }
+        try {
+            deliver(Long.valueOf(parts[0]), Long.valueOf(parts[1]), Long.valueOf(parts[2]));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析秒杀结果广播: {}", body);
+        }
+    }
+
+    private void doPublish(Long userId, Long seckillGoodsId, Long result) {
+        try {
+            redisTemplate.convertAndSend(RESULT_CHANNEL, userId + ":" + seckillGoodsId + ":" + result);
+        } catch (Exception e) {
+            // 广播失败不影响结果落地，前端轮询兜底
+            log.warn("广播秒杀结果失败: userId={}, seckillGoodsId={}", userId, seckillGoodsId, e);
+        }
+    }
+
+    private static String key(Long userId, Long seckillGoodsId) {
+        return userId + ":" + seckillGoodsId;
+    }
+}
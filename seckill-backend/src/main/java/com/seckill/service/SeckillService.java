@@ -3,6 +3,7 @@ package com.seckill.service;
 import cn.hutool.crypto.digest.DigestUtil;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.seckill.common.ResultCode;
+import com.seckill.common.SeckillKeys;
 import com.seckill.config.RabbitMQConfig;
 import com.seckill.dto.SeckillMessage;
 import com.seckill.entity.OrderInfo;
@@ -11,23 +12,23 @@ import com.seckill.entity.SeckillOrder;
 import com.seckill.exception.BusinessException;
 import com.seckill.mapper.SeckillGoodsMapper;
 import com.seckill.mapper.SeckillOrderMapper;
+import com.seckill.metrics.SeckillMetrics;
+import com.seckill.utils.SeckillPathSigner;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.data.redis.core.RedisTemplate;
-import org.springframework.data.redis.core.script.DefaultRedisScript;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import jakarta.annotation.PostConstruct;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * 秒杀服务 - 核心业务逻辑
@@ -39,10 +40,16 @@ import java.util.concurrent.TimeUnit;
  * - P1-1: 依赖 CaptchaService 替代 CaptchaController
  * - P1-3: 暴露 clearStockOverFlag 方法供订单取消时调用
  * - P1-6: initSeckillStock 仅加载进行中的秒杀商品
+ *
+ * 秒杀路径模式 (seckill.path.mode):
+ * - redis: 路径存 Redis，validateSeckillPath 使用 getAndDelete 校验
+ * - hmac: 路径为自校验的 HMAC 令牌，进程内校验，不再写任何 path key；
+ *         单次使用由秒杀 Lua 记录的令牌 nonce 保证（订单标记清除后同样生效）
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@DependsOn("seckillKeyMigrator") // 旧格式 key 先迁移，再预热库存
 public class SeckillService {
 
     private final SeckillGoodsMapper seckillGoodsMapper;
@@ -51,18 +58,25 @@ public class SeckillService {
     private final CaptchaService captchaService; // P1-1: 替换 CaptchaController
     private final RedisTemplate<String, Object> redisTemplate;
     private final RabbitTemplate rabbitTemplate;
-    private final DefaultRedisScript<Long> seckillScript; // P0-3: 合并后的原子脚本
+    private final SeckillMarkStore markStore; // P0-3: 合并后的原子脚本 + 订单标记/结果存储
+    private final SeckillPathSigner pathSigner;
+    private final SeckillMetrics seckillMetrics;
+    private final SeckillResultPushService resultPushService;
+    private final SeckillQueueService queueService;
+    private final StockOverFlags stockOverFlags;
+    private final SeckillGoodsSnapshot goodsSnapshot;
+    private final ReplicaReads replicaReads;
+    private final OrderIdGenerator orderIdGenerator;
+    private final OrderSharding orderSharding;
+
+    /** 秒杀路径模式: redis / hmac */
+    @Value("${seckill.path.mode:redis}")
+    private String pathMode;
 
-    private static final String STOCK_KEY = "seckill:stock:";
-    private static final String ORDER_KEY = "seckill:order:";
-    private static final String SECKILL_RESULT_KEY = "seckill:result:";
-    private static final String SECKILL_PATH_KEY = "seckill:path:";
     private static final String PATH_SALT = "FlashSale@2026!";
-    /** 订单标记 TTL: 24小时 = 86400秒 */
-    private static final long ORDER_MARK_TTL_SECONDS = 24 * 3600;
-
-    /** 内存标记：商品是否已售罄（减少Redis访问） */
-    private final Map<Long, Boolean> stockOverMap = new ConcurrentHashMap<>();
+    private static final String PATH_MODE_HMAC = "hmac";
+    /** 秒杀路径 TTL: 60秒 */
+    private static final long PATH_TTL_SECONDS = 60;
 
     /**
      * 系统初始化：将秒杀商品库存加载到Redis
@@ -71,7 +85,7 @@ public class SeckillService {
     @PostConstruct
     public void initSeckillStock() {
         // 先清理 Redis 中现有的秒杀库存，防止状态已变及脏数据残留
-        Set<String> keys = redisTemplate.keys(STOCK_KEY + "*");
+        Set<String> keys = redisTemplate.keys(SeckillKeys.STOCK_PATTERN);
         if (keys != null && !keys.isEmpty()) {
             redisTemplate.delete(keys);
         }
@@ -83,8 +97,13 @@ public class SeckillService {
                         .eq(SeckillGoods::getSeckillStatus, 1)
                         .eq(SeckillGoods::getGoodsStatus, 1));
         for (SeckillGoods sg : list) {
-            redisTemplate.opsForValue().set(STOCK_KEY + sg.getId(), sg.getStockCount());
-            stockOverMap.put(sg.getId(), false);
+            redisTemplate.opsForValue().set(SeckillKeys.stock(sg.getId()), sg.getStockCount());
+            // 库存 key 启动前已存在说明活动在进行中（节点重启、滚动发布），其它节点仍在发号、消费端仍在推进处理水位，
+            // 不能清零；只有首次加载才重置（管理端手动刷新和 SETNX 追加预热各自重置）
+            if (keys == null || !keys.contains(SeckillKeys.stock(sg.getId()))) {
+                queueService.reset(sg.getId());
+            }
+            stockOverFlags.clear(sg.getId());
         }
         int oldKeys = keys != null ? keys.size() : 0;
         log.info("秒杀库存预热完成, 共清理 {} 个旧库存, 加载 {} 个进行中的秒杀商品", oldKeys, list.size());
@@ -104,9 +123,10 @@ public class SeckillService {
         for (SeckillGoods sg : list) {
             // setIfAbsent (即 Redis 的 SETNX)
             // 只有当 Redis 中不存在该商品库存记录时，才从 DB 捞出来初始化。
-            Boolean absent = redisTemplate.opsForValue().setIfAbsent(STOCK_KEY + sg.getId(), sg.getStockCount());
+            Boolean absent = redisTemplate.opsForValue().setIfAbsent(SeckillKeys.stock(sg.getId()), sg.getStockCount());
             if (Boolean.TRUE.equals(absent)) {
-                stockOverMap.put(sg.getId(), false);
+                queueService.reset(sg.getId());
+                stockOverFlags.clear(sg.getId());
                 count++;
             }
         }
@@ -123,12 +143,13 @@ public class SeckillService {
     public void reloadSingleSeckillStock(Long seckillGoodsId) {
         SeckillGoods sg = seckillGoodsMapper.selectById(seckillGoodsId);
         if (sg != null && sg.getSeckillStatus() == 1 && sg.getGoodsStatus() == 1) {
-            redisTemplate.opsForValue().set(STOCK_KEY + sg.getId(), sg.getStockCount());
-            stockOverMap.put(sg.getId(), false);
+            redisTemplate.opsForValue().set(SeckillKeys.stock(sg.getId()), sg.getStockCount());
+            queueService.reset(sg.getId());
+            stockOverFlags.clear(sg.getId());
             log.info("手动刷新缓存：下架重新上架，商品 {} 缓存与售罄标记已重置", sg.getId());
         } else {
-            redisTemplate.delete(STOCK_KEY + seckillGoodsId);
-            stockOverMap.put(seckillGoodsId, true); // 不允许抢了
+            redisTemplate.delete(SeckillKeys.stock(seckillGoodsId));
+            stockOverFlags.markOver(seckillGoodsId); // 不允许抢了
         }
     }
 
@@ -137,21 +158,28 @@ public class SeckillService {
     /**
      * 创建秒杀路径（验证码校验通过后）
      * P1-1 修复: 调用 CaptchaService 替代 CaptchaController
+     * 验证码校验、删除与路径写入在同一个 Lua 脚本中完成，只需一次 Redis 往返
      */
     public String createSeckillPath(Long userId, Long seckillGoodsId, int captchaAnswer) {
-        // 1. 验证验证码（通过 Service 层调用，而非 Controller）
-        boolean valid = captchaService.verifyCaptcha(userId, seckillGoodsId, captchaAnswer);
-        if (!valid) {
-            throw new BusinessException(ResultCode.SECKILL_CAPTCHA_ERROR);
+        // hmac 模式：只需 GETDEL 校验验证码，路径由进程内签发
+        if (isHmacPathMode()) {
+            if (!captchaService.verifyCaptcha(userId, seckillGoodsId, captchaAnswer)) {
+                throw new BusinessException(ResultCode.SECKILL_CAPTCHA_ERROR);
+            }
+            return pathSigner.sign(userId, seckillGoodsId, PATH_TTL_SECONDS);
         }
 
-        // 2. 生成动态路径 (UUID + MD5)
+        // 1. 生成动态路径 (UUID + MD5)
         String uuid = UUID.randomUUID().toString();
         String path = DigestUtil.md5Hex(userId + "_" + seckillGoodsId + "_" + uuid + "_" + PATH_SALT);
 
-        // 3. 存入Redis (1分钟有效)
-        String key = SECKILL_PATH_KEY + userId + ":" + seckillGoodsId;
-        redisTemplate.opsForValue().set(key, path, 60, TimeUnit.SECONDS);
+        // 2. 【原子操作】校验验证码 + 路径存入Redis (1分钟有效)
+        String key = SeckillKeys.path(userId, seckillGoodsId);
+        boolean valid = captchaService.verifyCaptchaAndBindPath(
+                userId, seckillGoodsId, captchaAnswer, key, path, PATH_TTL_SECONDS);
+        if (!valid) {
+            throw new BusinessException(ResultCode.SECKILL_CAPTCHA_ERROR);
+        }
 
         return path;
     }
@@ -160,95 +188,136 @@ public class SeckillService {
      * 验证秒杀路径
      * P0-2 修复: 使用原子的 getAndDelete 替代 get + delete 两步操作，
      * 防止高并发下同一个 path 被多次验证通过（重放攻击）
+     * hmac 模式下只做进程内签名和有效期校验，重放由 doSeckill 的 Lua 令牌 nonce 记录拦截
      */
     public boolean validateSeckillPath(Long userId, Long seckillGoodsId, String path) {
-        String key = SECKILL_PATH_KEY + userId + ":" + seckillGoodsId;
+        if (isHmacPathMode()) {
+            return pathSigner.verify(userId, seckillGoodsId, path);
+        }
+        String key = SeckillKeys.path(userId, seckillGoodsId);
         // 原子操作：取值并删除（Spring Data Redis 2.6+ 支持）
         Object storedPath = redisTemplate.opsForValue().getAndDelete(key);
         return storedPath != null && path.equals(storedPath.toString());
     }
 
+    private boolean isHmacPathMode() {
+        return PATH_MODE_HMAC.equalsIgnoreCase(pathMode);
+    }
+
     // ========================= 秒杀核心逻辑 =========================
 
     /**
      * 执行秒杀（异步）
      * 1. 内存标记判断
      * 2. 校验秒杀商品及时间窗口
-     * 3. 【原子操作】Redis Lua: 重复判断 + 库存预减（P0-3 修复）
+     * 3. 【原子操作】Redis Lua: 重复判断 + 库存预减 + 发放排队号（P0-3 修复）
      * 4. 发送MQ消息
+     *
+     * @param path 已通过 validateSeckillPath 校验的秒杀路径（hmac 模式下其 nonce 由 Lua 记录，令牌只能受理一次）
+     * @return 排队号，用于查询排队进度
      */
-    public void doSeckill(Long userId, Long seckillGoodsId) {
+    public Long doSeckill(Long userId, Long seckillGoodsId, String path) {
         // 1. 内存标记：已售罄直接返回
-        if (Boolean.TRUE.equals(stockOverMap.get(seckillGoodsId))) {
+        if (stockOverFlags.isOver(seckillGoodsId)) {
+            seckillMetrics.count(SeckillMetrics.Outcome.SOLD_OUT);
             throw new BusinessException(ResultCode.SECKILL_STOCK_EMPTY);
         }
 
         // 2. 校验秒杀商品及时间窗口 (原先此处的 DB 查询已移除)
         // 核心解答：绝对没必要在此做 DB 查询！这是扛万级并发的前线，查 MySQL 会使得 Redis 前置形同虚设引发雪崩。
         // 时间窗口和状态已经在两个地方做了最严密的闭环保护：
-        // (1) 事前保护：如果尚未开始，STOCK_KEY 在 Redis 中根本不存在（Lua 返回 0）
-        // (2) 事后保护：如果已结束，Scheduler 会把 STOCK_KEY 清除（Lua 返回 0）
+        // (1) 事前保护：如果尚未开始，库存 key 在 Redis 中根本不存在（Lua 返回 0）
+        // (2) 事后保护：如果已结束，Scheduler 会把库存 key 清除（Lua 返回 0）
         // (3) 终极防线：消费者 executeSeckill() 写入数据库前，仍会稳稳当当地查一次 DB 判断时间！
 
         // 3. 【P0-3 修复】原子 Lua 脚本: 重复秒杀判断 + 库存预减
-        // 将原来分离的 setIfAbsent + Lua decr 合并为单个原子操作
-        String stockKey = STOCK_KEY + seckillGoodsId;
-        String orderKey = ORDER_KEY + userId + ":" + seckillGoodsId;
-        Long result = redisTemplate.execute(
-                seckillScript,
-                Arrays.asList(stockKey, orderKey),
-                ORDER_MARK_TTL_SECONDS);
-
-        if (result == null || result == 0) {
-            // 库存不足
-            stockOverMap.put(seckillGoodsId, true);
+        // 将原来分离的 setIfAbsent + Lua decr 合并为单个原子操作（订单标记的存储方式见 SeckillMarkStore）
+        String pathNonce = isHmacPathMode() ? pathSigner.nonceOf(path) : null;
+        long luaStart = System.nanoTime();
+        List<?> reply = markStore.acquire(userId, seckillGoodsId, pathNonce, PATH_TTL_SECONDS);
+        seckillMetrics.record(SeckillMetrics.Stage.LUA, luaStart);
+        long result = reply != null && !reply.isEmpty() ? ((Number) reply.get(0)).longValue() : 0L;
+
+        if (result == 0) {
+            // 库存不足（其它节点会各自在 Lua 返回 0 或收到售罄广播时置位）
+            stockOverFlags.markOverLocally(seckillGoodsId);
+            seckillMetrics.count(SeckillMetrics.Outcome.SOLD_OUT);
             throw new BusinessException(ResultCode.SECKILL_STOCK_EMPTY);
         }
         if (result == -1) {
             // 重复秒杀
+            seckillMetrics.count(SeckillMetrics.Outcome.REPEAT);
             throw new BusinessException(ResultCode.SECKILL_REPEAT);
         }
+        if (((Number) reply.get(1)).longValue() == 0) {
+            // 拿到最后一件：本节点立即置位，脚本已向其它节点广播售罄
+            stockOverFlags.markOverLocally(seckillGoodsId);
+        }
 
-        // 4. 发送秒杀消息到MQ
+        // 4. 发送秒杀消息到MQ（携带请求ID和受理时间，用于链路追踪）
         try {
             SeckillMessage message = new SeckillMessage();
             message.setUserId(userId);
             message.setSeckillGoodsId(seckillGoodsId);
+            message.setRequestId(newRequestId());
+            message.setAcceptTime(System.currentTimeMillis());
+            message.setTicket(result);
+            message.setOrderId(orderIdGenerator.nextId());
+            long publishStart = System.nanoTime();
             rabbitTemplate.convertAndSend(
                     RabbitMQConfig.SECKILL_EXCHANGE,
                     RabbitMQConfig.SECKILL_ROUTING_KEY,
                     message);
-            log.info("秒杀请求已入队: userId={}, seckillGoodsId={}", userId, seckillGoodsId);
+            seckillMetrics.record(SeckillMetrics.Stage.PUBLISH, publishStart);
+            seckillMetrics.count(SeckillMetrics.Outcome.ACCEPTED);
+            // 逐请求日志降为 DEBUG，受理量由 seckill.outcome 计数器和每分钟汇总日志体现
+            log.debug("秒杀请求已入队: requestId={}, userId={}, seckillGoodsId={}, ticket={}",
+                    message.getRequestId(), userId, seckillGoodsId, result);
+            return result;
         } catch (Exception e) {
+            seckillMetrics.count(SeckillMetrics.Outcome.PUBLISH_FAILED);
             log.error("MQ发送失败，回滚Redis库存和订单标记: {}", e.getMessage());
             // 回滚 Redis 库存
-            redisTemplate.opsForValue().increment(STOCK_KEY + seckillGoodsId);
+            redisTemplate.opsForValue().increment(SeckillKeys.stock(seckillGoodsId));
             // 清除重复秒杀标记
-            redisTemplate.delete(orderKey);
-            // 清除售罄标记
-            stockOverMap.put(seckillGoodsId, false);
+            markStore.clearMark(userId, seckillGoodsId);
+            // 清除售罄标记（库存已归还，重新开放受理）
+            stockOverFlags.clear(seckillGoodsId);
+            // 已发放的排队号不会被消费，直接计入处理水位，避免后续排队位置偏大
+            queueService.markProcessed(seckillGoodsId);
             throw new BusinessException("秒杀繁忙，请稍后重试");
         }
     }
 
+    /**
+     * 生成请求ID（ThreadLocalRandom 拼 128 位 UUID，避免 UUID.randomUUID 的 SecureRandom 竞争）
+     */
+    private static String newRequestId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+
     /**
      * P1-3 修复: 清除内存售罄标记
      * 供 OrderService 在取消订单恢复库存后调用,
      * 防止库存已恢复但内存标记仍为"售罄"导致后续请求被拒绝(少卖)
      */
     public void clearStockOverFlag(Long seckillGoodsId) {
-        stockOverMap.put(seckillGoodsId, false);
+        stockOverFlags.clear(seckillGoodsId);
         log.debug("已清除秒杀商品 {} 的内存售罄标记", seckillGoodsId);
     }
 
     /**
      * 真正执行秒杀（MQ消费者调用）
+     * 商品信息取自本地只读快照，库存是否充足只以 reduceStock 的影响行数为准
+     *
+     * @param orderId doSeckill 受理时分配的订单号，为 null（升级前入队的消息）时插入时再生成
      */
     @Transactional(rollbackFor = Exception.class)
-    public void executeSeckill(Long userId, Long seckillGoodsId) {
-        // 1. 校验秒杀商品状态和库存
-        SeckillGoods sg = seckillGoodsMapper.selectById(seckillGoodsId);
-        if (sg == null || sg.getStockCount() <= 0) {
+    public void executeSeckill(Long userId, Long seckillGoodsId, Long orderId) {
+        // 1. 校验秒杀商品是否存在（本地快照，不查库）
+        SeckillGoods sg = goodsSnapshot.get(seckillGoodsId);
+        if (sg == null) {
             handleSeckillFail(userId, seckillGoodsId);
             return;
         }
@@ -270,10 +339,22 @@ public class SeckillService {
 
         // 3. 再次检查是否重复秒杀（数据库层面 — 最后一道防线）
         SeckillOrder existOrder = orderService.getSeckillOrder(userId, seckillGoodsId);
+        if (existOrder != null && orderId != null && orderId.equals(existOrder.getOrderId())) {
+            // 订单号相同：同一条消息在事务提交后、登记已消费前被重投，订单已落库，按成功幂等处理
+            // 不归还库存；结果若被覆盖或已丢失则恢复
+            if (!orderId.equals(markStore.getResult(userId, seckillGoodsId))) {
+                setResult(userId, seckillGoodsId, orderId);
+            }
+            log.info("重投消息对应的订单已存在, 按成功处理: userId={}, seckillGoodsId={}, orderId={}",
+                    userId, seckillGoodsId, orderId);
+            return;
+        }
         if (existOrder != null) {
-            // 已有订单，不必再次删除标记，仅退回扣减错的库存份额，设为失败
+            // 已有另一笔订单，不必再次删除标记，仅退回扣减错的库存份额，设为失败
+            seckillMetrics.count(SeckillMetrics.Outcome.ORDER_FAIL);
             setResult(userId, seckillGoodsId, -1L);
-            redisTemplate.opsForValue().increment(STOCK_KEY + seckillGoodsId);
+            redisTemplate.opsForValue().increment(SeckillKeys.stock(seckillGoodsId));
+            clearStockOverFlag(seckillGoodsId);
             return;
         }
 
@@ -286,6 +367,7 @@ public class SeckillService {
 
         // 6. 创建订单
         OrderInfo order = new OrderInfo();
+        order.setId(orderId);
         order.setUserId(userId);
         order.setGoodsId(seckillGoodsId);
         order.setGoodsName(sg.getGoodsName());
@@ -293,16 +375,20 @@ public class SeckillService {
         order.setGoodsPrice(sg.getSeckillPrice());
         order.setStatus(0); // 未支付
         order.setDeleted(0);
-        orderService.save(order);
 
-        // 7. 创建秒杀订单
+        // 7. 创建秒杀订单（与订单写入用户所在的同一分表）
         SeckillOrder seckillOrder = new SeckillOrder();
         seckillOrder.setUserId(userId);
-        seckillOrder.setOrderId(order.getId());
         seckillOrder.setGoodsId(seckillGoodsId);
-        seckillOrderMapper.insert(seckillOrder);
+        orderSharding.onUser(userId, () -> {
+            orderService.save(order);
+            seckillOrder.setOrderId(order.getId());
+            return seckillOrderMapper.insert(seckillOrder);
+        });
 
         // 8. 标记秒杀结果（设置 24h TTL，防止 Redis Key 永久占用）
+        // 结果可见前先记下用户刚写入，随后的订单查询读主库
+        replicaReads.markWritten(userId);
         setResult(userId, seckillGoodsId, order.getId());
 
         // 9. 发送延迟消息（30分钟后检查支付状态）
@@ -311,7 +397,8 @@ public class SeckillService {
                 RabbitMQConfig.ORDER_DELAY_ROUTING_KEY,
                 order.getId());
 
-        log.info("秒杀成功: userId={}, orderId={}, goodsName={}", userId, order.getId(), sg.getGoodsName());
+        seckillMetrics.count(SeckillMetrics.Outcome.ORDER_SUCCESS);
+        log.debug("秒杀成功: userId={}, orderId={}, goodsName={}", userId, order.getId(), sg.getGoodsName());
     }
 
     /**
@@ -320,32 +407,31 @@ public class SeckillService {
      * @return orderId-成功 0-排队中 -1-失败
      */
     public Long getResult(Long userId, Long seckillGoodsId) {
-        Object result = redisTemplate.opsForValue().get(SECKILL_RESULT_KEY + userId + ":" + seckillGoodsId);
-        if (result == null) {
-            return 0L; // 排队中
-        }
-        return Long.valueOf(result.toString());
+        Long result = markStore.getResult(userId, seckillGoodsId);
+        return result != null ? result : 0L; // null: 排队中
     }
 
     /**
-     * 设置秒杀结果到Redis（TTL 24小时，防止Key永久占用）
+     * 设置秒杀结果到Redis（TTL 24小时，防止Key永久占用），并广播给持有结果推送连接的节点
      */
     private void setResult(Long userId, Long seckillGoodsId, Long orderId) {
-        redisTemplate.opsForValue().set(
-                SECKILL_RESULT_KEY + userId + ":" + seckillGoodsId,
-                orderId, 24, TimeUnit.HOURS);
+        long start = System.nanoTime();
+        markStore.setResult(userId, seckillGoodsId, orderId);
+        seckillMetrics.record(SeckillMetrics.Stage.RESULT_WRITE, start);
+        resultPushService.publish(userId, seckillGoodsId, orderId);
     }
 
     /**
      * MQ消费时发生异常落库失败的补偿：回滚Redis占用坑位
      */
     public void handleSeckillFail(Long userId, Long seckillGoodsId) {
+        seckillMetrics.count(SeckillMetrics.Outcome.ORDER_FAIL);
         setResult(userId, seckillGoodsId, -1L);
         // 回滚 Redis 库存，避免用户占用了 Redis 库存导致永久少卖
-        redisTemplate.opsForValue().increment(STOCK_KEY + seckillGoodsId);
+        redisTemplate.opsForValue().increment(SeckillKeys.stock(seckillGoodsId));
 
         // 删除排队成功的标记，让用户可以重新抢购
-        redisTemplate.delete(ORDER_KEY + userId + ":" + seckillGoodsId);
+        markStore.clearMark(userId, seckillGoodsId);
 
         // 清除内存售罄标记
         clearStockOverFlag(seckillGoodsId);
@@ -0,0 +1,202 @@
+package com.seckill.service;
+
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.seckill.common.SeckillKeys;
+import com.seckill.entity.SeckillGoods;
+import com.seckill.mapper.SeckillGoodsMapper;
+import com.seckill.utils.DataSourceRouting;
+import com.seckill.utils.JwtUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 秒杀开抢前预热
+ *
+ * <p>
+ * 问题背景：活动状态由 SeckillStatusScheduler 每 60 秒同步一次，开抢后最长要等一分钟才会写入 Redis 库存，
+ * 期间所有请求都因库存 key 不存在而失败；开抢瞬间 Lua 脚本首次 EVALSHA 未命中、商品详情/列表缓存、
+ * 消费端商品快照都是冷的，第一秒的表现远差于之后。
+ * </p>
+ *
+ * <p>
+ * 方案：每 10 秒扫描 lead-seconds 内即将开始的商品（seckill_status=0），提前完成不依赖开抢状态的预热：
+ * SCRIPT LOAD 全部 Lua 脚本、JWT 解析链路预热；并按 start_date 精确调度一次"开抢激活"：
+ * 切换活动状态 → SETNX 加载库存 → 广播商品变更（各节点快照和商品ID位图刷新）→ 重建详情和列表缓存。
+ * 库存 key 仍然只在开抢时刻才写入，"开抢前库存 key 不存在"这道时间窗口防线不变。
+ * 数据库时钟略慢于应用时钟导致状态尚未切换时，每 500ms 重试一次。
+ * </p>
+ *
+ * <p>
+ * 预热进度写入 seckill:{goodsId}:warmup（Hash），任一节点的管理后台都能看到。
+ * </p>
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SeckillWarmupService {
+
+    /** 预热阶段 */
+    public static final String STAGE_WARMED = "warmed";
+    public static final String STAGE_ACTIVE = "active";
+    public static final String STAGE_FAILED = "failed";
+
+    private static final long ACTIVATE_RETRY_MILLIS = 500;
+    private static final int ACTIVATE_MAX_ATTEMPTS = 20;
+
+    private final SeckillGoodsMapper seckillGoodsMapper;
+    private final SeckillService seckillService;
+    private final GoodsService goodsService;
+    private final SeckillGoodsSnapshot goodsSnapshot;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final List<RedisScript<?>> redisScripts;
+    private final JwtUtils jwtUtils;
+    private final TaskScheduler taskScheduler;
+
+    /** 提前多少秒开始预热 */
+    @Value("${seckill.warmup.lead-seconds:300}")
+    private long leadSeconds;
+
+    /** 本节点已调度激活的商品：seckillGoodsId → 调度时的开始时间（管理员改了开始时间会重新调度） */
+    private final Map<Long, LocalDateTime> scheduled = new ConcurrentHashMap<>();
+
+    /**
+     * 扫描即将开始的秒杀商品并预热
+     */
+    @Scheduled(fixedRate = 10_000)
+    public void scan() {
+        LocalDateTime now = LocalDateTime.now();
+        List<SeckillGoods> upcoming = seckillGoodsMapper.selectList(
+                new LambdaQueryWrapper<SeckillGoods>()
+                        .eq(SeckillGoods::getSeckillStatus, 0)
+                        .eq(SeckillGoods::getGoodsStatus, 1)
+                        .gt(SeckillGoods::getStartDate, now)
+                        .le(SeckillGoods::getStartDate, now.plusSeconds(leadSeconds)));
+        for (SeckillGoods sg : upcoming) {
+            if (sg.getStartDate().equals(scheduled.get(sg.getId()))) {
+                continue;
+            }
+            try {
+                warmup(sg);
+            } catch (Exception e) {
+                log.warn("[预热] 商品 {} 预热失败: {}", sg.getId(), e.getMessage());
+                updateProgress(sg.getId(), STAGE_FAILED, sg.getStartDate(), e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 查询预热进度（管理后台展示），未预热返回 null
+     */
+    public Map<Object, Object> getProgress(Long seckillGoodsId) {
+        Map<Object, Object> progress = redisTemplate.opsForHash().entries(SeckillKeys.warmup(seckillGoodsId));
+        return progress.isEmpty() ? null : progress;
+    }
+
+    private void warmup(SeckillGoods sg) {
+        long start = System.nanoTime();
+        // 1. Lua 脚本预加载，开抢后 EVALSHA 不再 NOSCRIPT 回退
+        // （集群模式下脚本在各分片首次 EVALSHA 时自行加载，SCRIPT LOAD 失败不影响后续激活）
+        try {
+            redisTemplate.execute((RedisCallback<Object>) connection -> {
+                for (RedisScript<?> script : redisScripts) {
+                    connection.scriptingCommands().scriptLoad(script.getScriptAsString().getBytes(StandardCharsets.UTF_8));
+                }
+                return null;
+            });
+        } catch (Exception e) {
+            log.warn("[预热] SCRIPT LOAD 失败, 跳过脚本预加载: {}", e.getMessage());
+        }
+        // 2. JWT 签发/解析链路预热（密钥初始化、类加载）
+        jwtUtils.parseToken(jwtUtils.generateToken(0L, "warmup", 0));
+
+        // 3. 按开始时间精确调度开抢激活
+        scheduled.put(sg.getId(), sg.getStartDate());
+        Instant activateAt = sg.getStartDate().atZone(ZoneId.systemDefault()).toInstant();
+        taskScheduler.schedule(() -> activate(sg.getId(), sg.getStartDate(), 1), activateAt);
+
+        updateProgress(sg.getId(), STAGE_WARMED, sg.getStartDate(),
+                "已加载 " + redisScripts.size() + " 个脚本, 耗时 "
+                        + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) + "ms");
+        log.info("[预热] 商品 {} 预热完成, 将于 {} 开抢激活", sg.getId(), sg.getStartDate());
+    }
+
+    /**
+     * 开抢激活：切换活动状态并装载库存，刷新各级缓存
+     */
+    private void activate(Long seckillGoodsId, LocalDateTime startDate, int attempt) {
+        // 开始时间已被修改，交给下一轮扫描重新调度
+        if (!startDate.equals(scheduled.get(seckillGoodsId))) {
+            return;
+        }
+        try {
+            seckillGoodsMapper.updatePublishedToOngoing();
+            SeckillGoods sg = seckillGoodsMapper.selectById(seckillGoodsId);
+            if (sg == null || sg.getGoodsStatus() != 1) {
+                scheduled.remove(seckillGoodsId);
+                return;
+            }
+            if (sg.getSeckillStatus() != 1) {
+                if (attempt < ACTIVATE_MAX_ATTEMPTS) {
+                    taskScheduler.schedule(() -> activate(seckillGoodsId, startDate, attempt + 1),
+                            Instant.now().plusMillis(ACTIVATE_RETRY_MILLIS));
+                } else {
+                    scheduled.remove(seckillGoodsId);
+                    updateProgress(seckillGoodsId, STAGE_FAILED, startDate, "活动状态未切换，等待定时同步");
+                }
+                return;
+            }
+
+            // 库存只用 SETNX 装载，其它节点已激活并开始扣减时不会覆盖
+            seckillService.incrementalInitSeckillStock();
+            // 各节点商品快照、商品ID位图刷新
+            goodsSnapshot.invalidateAll();
+            // 以最新状态重建详情和列表缓存（刚切换完状态，读主库）
+            redisTemplate.delete(List.of(SeckillKeys.goodsDetail(seckillGoodsId), SeckillKeys.GOODS_LIST));
+            DataSourceRouting.onPrimary(() -> goodsService.getSeckillGoodsDetail(seckillGoodsId));
+            DataSourceRouting.onPrimary(goodsService::listSeckillGoods);
+            goodsSnapshot.get(seckillGoodsId);
+
+            scheduled.remove(seckillGoodsId);
+            long lagMillis = Duration.between(startDate, LocalDateTime.now()).toMillis();
+            updateProgress(seckillGoodsId, STAGE_ACTIVE, startDate, "开抢后 " + lagMillis + "ms 激活");
+            log.info("[预热] 商品 {} 已激活, 距开始时间 {}ms", seckillGoodsId, lagMillis);
+        } catch (Exception e) {
+            scheduled.remove(seckillGoodsId);
+            log.error("[预热] 商品 {} 激活失败", seckillGoodsId, e);
+            updateProgress(seckillGoodsId, STAGE_FAILED, startDate, e.getMessage());
+        }
+    }
+
+    private void updateProgress(Long seckillGoodsId, String stage, LocalDateTime startDate, String message) {
+        try {
+            Map<String, Object> progress = new LinkedHashMap<>();
+            progress.put("stage", stage);
+            progress.put("startDate", startDate.toString());
+            progress.put("message", message != null ? message : "");
+            progress.put("updatedAt", LocalDateTime.now().toString());
+            String key = SeckillKeys.warmup(seckillGoodsId);
+            redisTemplate.opsForHash().putAll(key, progress);
+            redisTemplate.expire(key, 1, TimeUnit.DAYS);
+        } catch (Exception e) {
+            log.debug("写入预热进度失败: seckillGoodsId={}", seckillGoodsId);
+        }
+    }
+}
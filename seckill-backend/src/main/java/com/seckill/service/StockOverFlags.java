@@ -0,0 +1,103 @@
+package com.seckill.service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 内存售罄标记（集群同步）
+ *
+ * <p>
+ * 原先每个节点只有自己的 Lua 调用返回 0 之后才会置位售罄标记，库存被其它节点抢空后，
+ * 每个节点仍至少要多打一次 Lua 才知道售罄。
+ * </p>
+ *
+ * <p>
+ * 现在秒杀 Lua 脚本在库存扣减到 0 的同一次调用内 PUBLISH 售罄消息（与扣减原子有序，
+ * 不会晚于之后归还库存的解除消息），所有节点随即在内存中拒绝后续请求；
+ * 失败补偿、取消订单等归还库存时先 INCR 再广播解除，重新开放受理。
+ * 广播丢失时各节点仍会在下一次 Lua 返回 0 时自行置位，不影响正确性。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StockOverFlags implements MessageListener {
+
+    /** 售罄标记广播频道，消息体 "goodsId:1"(售罄) / "goodsId:0"(重新开放) */
+    public static final String STOCK_CHANNEL = "seckill:channel:stock";
+
+    /** 广播消息为纯文本（Lua 脚本内 PUBLISH 的消息同样是纯文本），不走 JSON 序列化 */
+    private final StringRedisTemplate stringRedisTemplate;
+    private final RedisMessageListenerContainer listenerContainer;
+
+    /** 内存标记：商品是否已售罄（减少Redis访问） */
+    private final Map<Long, Boolean> stockOverMap = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void subscribeChannel() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(STOCK_CHANNEL));
+    }
+
+    /**
+     * 本节点是否已标记售罄
+     */
+    public boolean isOver(Long seckillGoodsId) {
+        return Boolean.TRUE.equals(stockOverMap.get(seckillGoodsId));
+    }
+
+    /**
+     * 仅置位本节点标记（Lua 返回库存不足时，其它节点会各自发现）
+     */
+    public void markOverLocally(Long seckillGoodsId) {
+        stockOverMap.put(seckillGoodsId, true);
+    }
+
+    /**
+     * 置位售罄并广播到所有节点
+     */
+    public void markOver(Long seckillGoodsId) {
+        stockOverMap.put(seckillGoodsId, true);
+        broadcast(seckillGoodsId, true);
+    }
+
+    /**
+     * 解除售罄并广播到所有节点（库存被归还时调用）
+     */
+    public void clear(Long seckillGoodsId) {
+        stockOverMap.put(seckillGoodsId, false);
+        broadcast(seckillGoodsId, false);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String body = new String(message.getBody(), StandardCharsets.UTF_8);
+        String[] parts = body.split(":");
+        if (parts.length != 2) {
+            return;
+        }
+        try {
+            stockOverMap.put(Long.valueOf(parts[0]), "1".equals(parts[1]));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析售罄标记广播: {}", body);
+        }
+    }
+
+    private void broadcast(Long seckillGoodsId, boolean over) {
+        try {
+            stringRedisTemplate.convertAndSend(STOCK_CHANNEL, seckillGoodsId + ":" + (over ? "1" : "0"));
+        } catch (Exception e) {
+            log.warn("广播售罄标记失败: seckillGoodsId={}, over={}", seckillGoodsId, over, e);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.seckill.service;
+
+import com.seckill.entity.User;
+import lombok.Data;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 登录身份缓存（手机号 → 登录所需的用户信息）
+ *
+ * <p>
+ * 问题背景：开抢前几分钟数万用户集中登录，每次登录都按手机号查一次 t_user，登录洪峰直接体现在 MySQL CPU 上。
+ * 用户资料极少变更，按手机号缓存到 Redis（默认 30 分钟），不存在的手机号写 60 秒空值哨兵，防止撞库请求穿透。
+ * </p>
+ *
+ * <p>
+ * 缓存的是 {@link Identity} 投影而不是 User 实体：库中的密码哈希不进 Redis，只存
+ * HMAC-SHA256(identity-secret, 密码哈希)，拿到 Redis 数据但没有服务端密钥时无法用于离线撞库。
+ * 用户资料通过 UserService 更新（updateById、updateBatchById、按条件 update、updateStatus）、新用户注册时立即失效对应缓存；
+ * 直接改库（如 DBA 禁用账号）后调用 /admin/users/{userId}/identity/evict 失效，未调用时最迟 ttl 后生效。
+ * </p>
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserIdentityCache {
+
+    private static final String PHONE_KEY = "seckill:user:phone:";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final HexFormat HEX = HexFormat.of();
+    /** 空值哨兵有效期(秒) */
+    private static final long MISSING_TTL_SECONDS = 60;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+
+    /** 身份缓存有效期(秒) */
+    @Value("${seckill.user.identity-cache-seconds:1800}")
+    private long ttlSeconds;
+
+    /** 密码哈希摘要密钥 */
+    @Value("${seckill.user.identity-secret}")
+    private String secret;
+
+    /** Mac 非线程安全，每个线程持有一个实例 */
+    private final ThreadLocal<Mac> macHolder = ThreadLocal.withInitial(this::createMac);
+
+    /**
+     * 按手机号取登录身份，未命中时通过 loader 查库并回填
+     *
+     * @return 用户不存在时返回 null
+     */
+    public Identity getByPhone(String phone, Supplier<User> loader) {
+        String key = PHONE_KEY + phone;
+        Object cached = readQuietly(key);
+        if (cached instanceof Identity identity) {
+            return identity;
+        }
+        if ("".equals(cached)) {
+            return null;
+        }
+        User user = loader.get();
+        Identity identity = user != null ? toIdentity(user) : null;
+        try {
+            if (identity == null) {
+                redisTemplate.opsForValue().set(key, "", MISSING_TTL_SECONDS, TimeUnit.SECONDS);
+            } else {
+                redisTemplate.opsForValue().set(key, identity, ttlSeconds, TimeUnit.SECONDS);
+            }
+        } catch (Exception e) {
+            log.warn("回填用户身份缓存失败: {}", e.getMessage());
+        }
+        return identity;
+    }
+
+    /**
+     * 校验密码哈希（Md5Utils.midToDb 的结果）是否与身份中的摘要一致
+     */
+    public boolean matches(Identity identity, String dbPassword) {
+        if (identity.getPasswordDigest() == null || dbPassword == null) {
+            return false;
+        }
+        // 常量时间比较，防止时序攻击
+        return MessageDigest.isEqual(digest(dbPassword).getBytes(StandardCharsets.US_ASCII),
+                identity.getPasswordDigest().getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * 失效手机号对应的缓存（注册、资料变更后调用）
+     */
+    public void evict(String phone) {
+        if (phone != null) {
+            redisTemplate.delete(PHONE_KEY + phone);
+        }
+    }
+
+    private Identity toIdentity(User user) {
+        Identity identity = new Identity();
+        identity.setId(user.getId());
+        identity.setUsername(user.getUsername());
+        identity.setNickname(user.getNickname());
+        identity.setPhone(user.getPhone());
+        identity.setRole(user.getRole());
+        identity.setStatus(user.getStatus());
+        identity.setSalt(user.getSalt());
+        identity.setPasswordDigest(user.getPassword() != null ? digest(user.getPassword()) : null);
+        return identity;
+    }
+
+    private String digest(String dbPassword) {
+        return HEX.formatHex(macHolder.get().doFinal(dbPassword.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化身份摘要失败", e);
+        }
+    }
+
+    private Object readQuietly(String key) {
+        try {
+            return redisTemplate.opsForValue().get(key);
+        } catch (Exception e) {
+            // 缓存不可用时直接查库，不影响登录
+            log.warn("读取用户身份缓存失败: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * 登录所需的用户信息，不含库中的密码哈希
+     */
+    @Data
+    public static class Identity {
+        private Long id;
+        private String username;
+        private String nickname;
+        private String phone;
+        private Integer role;
+        private Integer status;
+        private String salt;
+        /** HMAC-SHA256(identity-secret, 密码哈希)，16进制 */
+        private String passwordDigest;
+    }
+}
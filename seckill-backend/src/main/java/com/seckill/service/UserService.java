@@ -1,5 +1,6 @@
 package com.seckill.service;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
 import com.seckill.common.ResultCode;
@@ -10,13 +11,18 @@ import com.seckill.exception.BusinessException;
 import com.seckill.mapper.UserMapper;
 import com.seckill.utils.JwtUtils;
 import com.seckill.utils.Md5Utils;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -29,9 +35,18 @@ public class UserService extends ServiceImpl<UserMapper, User> {
 
     private final JwtUtils jwtUtils;
     private final RedisTemplate<String, Object> redisTemplate;
+    private final UserIdentityCache identityCache;
 
     private static final String REDIS_TOKEN_KEY = "seckill:user:token:";
 
+    /** 重复登录时是否复用仍有效的 Token（关闭则每次登录签发新 Token，旧 Token 下线） */
+    @Value("${seckill.user.reuse-session:true}")
+    private boolean reuseSession;
+
+    /** 复用 Token 时要求的最短剩余有效期(毫秒)，不足则重新签发 */
+    @Value("${seckill.user.reuse-min-remaining-ms:3600000}")
+    private long reuseMinRemainingMillis;
+
     /**
      * 用户注册
      */
@@ -59,16 +74,19 @@ public class UserService extends ServiceImpl<UserMapper, User> {
         user.setDeleted(0);
 
         save(user);
+        // 清除该手机号"不存在"的空值哨兵
+        identityCache.evict(dto.getPhone());
         log.info("用户注册成功: phone={}", dto.getPhone());
     }
 
     /**
      * 用户登录
+     * 用户信息取自身份缓存；同一用户已有未过期的 Token 时直接返回，不重复签发和写 Redis
      */
     public Map<String, Object> login(LoginDTO dto) {
-        // 查询用户
-        User user = getOne(new LambdaQueryWrapper<User>()
-                .eq(User::getPhone, dto.getPhone()));
+        // 查询用户（身份缓存未命中才查库）
+        UserIdentityCache.Identity user = identityCache.getByPhone(dto.getPhone(), () -> getOne(
+                new LambdaQueryWrapper<User>().eq(User::getPhone, dto.getPhone())));
 
         if (user == null) {
             throw new BusinessException(ResultCode.USER_NOT_FOUND);
@@ -80,18 +98,21 @@ public class UserService extends ServiceImpl<UserMapper, User> {
 
         // 验证密码
         String dbPassword = Md5Utils.midToDb(dto.getPassword(), user.getSalt());
-        if (!dbPassword.equals(user.getPassword())) {
+        if (!identityCache.matches(user, dbPassword)) {
             throw new BusinessException(ResultCode.USER_PASSWORD_ERROR);
         }
 
-        // 生成Token（包含角色信息）
-        String token = jwtUtils.generateToken(user.getId(), user.getUsername(), user.getRole());
+        // 复用仍有效的 Token；否则生成新 Token（包含角色信息）
+        String token = reuseSession ? reusableToken(user) : null;
+        if (token == null) {
+            token = jwtUtils.generateToken(user.getId(), user.getUsername(), user.getRole());
 
-        // 存入Redis (支持踢人下线 - 同一用户只保留最后一个Token)
-        redisTemplate.opsForValue().set(
-                REDIS_TOKEN_KEY + user.getId(),
-                token,
-                24, TimeUnit.HOURS);
+            // 存入Redis (支持踢人下线 - 同一用户只保留最后一个Token)
+            redisTemplate.opsForValue().set(
+                    REDIS_TOKEN_KEY + user.getId(),
+                    token,
+                    24, TimeUnit.HOURS);
+        }
 
         // 返回用户信息和Token
         Map<String, Object> result = new HashMap<>();
@@ -106,6 +127,98 @@ public class UserService extends ServiceImpl<UserMapper, User> {
         return result;
     }
 
+    /**
+     * 更新用户资料（同时失效身份缓存，新旧手机号都清除）
+     */
+    @Override
+    public boolean updateById(User entity) {
+        User old = getById(entity.getId());
+        boolean updated = super.updateById(entity);
+        if (old != null) {
+            identityCache.evict(old.getPhone());
+        }
+        identityCache.evict(entity.getPhone());
+        return updated;
+    }
+
+    /**
+     * 批量更新用户资料（逐个失效新旧手机号的身份缓存）
+     */
+    @Override
+    public boolean updateBatchById(Collection<User> entityList, int batchSize) {
+        List<User> olds = listByIds(entityList.stream().map(User::getId).toList());
+        boolean updated = super.updateBatchById(entityList, batchSize);
+        olds.forEach(old -> identityCache.evict(old.getPhone()));
+        entityList.forEach(entity -> identityCache.evict(entity.getPhone()));
+        return updated;
+    }
+
+    /**
+     * 按条件更新用户（如批量禁用）：先查出命中的用户，更新后失效其身份缓存
+     */
+    @Override
+    public boolean update(User entity, Wrapper<User> updateWrapper) {
+        List<User> olds = list(updateWrapper);
+        boolean updated = super.update(entity, updateWrapper);
+        olds.forEach(old -> identityCache.evict(old.getPhone()));
+        if (entity != null) {
+            identityCache.evict(entity.getPhone());
+        }
+        return updated;
+    }
+
+    /**
+     * 启用/禁用账号：经 updateById 失效身份缓存，禁用时同时删除登录 Token 使其立即下线
+     */
+    public void updateStatus(Long userId, int status) {
+        User user = new User();
+        user.setId(userId);
+        user.setStatus(status);
+        if (!updateById(user)) {
+            throw new BusinessException(ResultCode.USER_NOT_FOUND);
+        }
+        if (status != 1) {
+            redisTemplate.delete(REDIS_TOKEN_KEY + userId);
+        }
+        log.info("用户状态已更新: userId={}, status={}", userId, status);
+    }
+
+    /**
+     * 失效用户的身份缓存（直接改库后调用）；账号已禁用时同时删除登录 Token
+     */
+    public void evictIdentity(Long userId) {
+        User user = getById(userId);
+        if (user == null) {
+            throw new BusinessException(ResultCode.USER_NOT_FOUND);
+        }
+        identityCache.evict(user.getPhone());
+        if (user.getStatus() == null || user.getStatus() != 1) {
+            redisTemplate.delete(REDIS_TOKEN_KEY + userId);
+        }
+        log.info("已失效用户身份缓存: userId={}, status={}", userId, user.getStatus());
+    }
+
+    /**
+     * 当前登录中的 Token 仍属于该用户、角色未变且剩余有效期足够时返回它
+     */
+    private String reusableToken(UserIdentityCache.Identity user) {
+        Object current = redisTemplate.opsForValue().get(REDIS_TOKEN_KEY + user.getId());
+        if (!(current instanceof String token)) {
+            return null;
+        }
+        try {
+            Claims claims = jwtUtils.parseToken(token);
+            int role = user.getRole() != null ? user.getRole() : 0;
+            boolean sameIdentity = user.getId().equals(claims.get("userId", Long.class))
+                    && Integer.valueOf(role).equals(claims.get("role", Integer.class))
+                    && Objects.equals(user.getUsername(), claims.getSubject());
+            long remaining = claims.getExpiration().getTime() - System.currentTimeMillis();
+            return sameIdentity && remaining >= reuseMinRemainingMillis ? token : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
     /**
      * 退出登录
      */
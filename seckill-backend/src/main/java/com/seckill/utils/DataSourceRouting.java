@@ -0,0 +1,71 @@
+package com.seckill.utils;
+
+import java.util.function.Supplier;
+
+/**
+ * 数据源路由上下文 - 基于 ThreadLocal 标记当前线程的查询走主库、只读副本还是消费端专用连接池
+ * 写事务中始终走主库；主库标记优先于副本标记（外层要求读主库时，内层的副本读取同样读主库）；
+ * 消费端标记优先于其它标记（消费端连接池同样连主库）
+ */
+public final class DataSourceRouting {
+
+    public enum Route {
+        PRIMARY, REPLICA, CONSUMER
+    }
+
+    private static final ThreadLocal<Route> ROUTE_HOLDER = new ThreadLocal<>();
+
+    private DataSourceRouting() {
+    }
+
+    /**
+     * 当前线程的路由标记，未标记返回 null
+     */
+    public static Route current() {
+        return ROUTE_HOLDER.get();
+    }
+
+    /**
+     * 在只读副本上执行查询（外层已有标记时沿用外层）
+     */
+    public static <T> T onReplica(Supplier<T> query) {
+        if (ROUTE_HOLDER.get() != null) {
+            return query.get();
+        }
+        return with(Route.REPLICA, query);
+    }
+
+    /**
+     * 强制在主库上执行查询（消费端线程内沿用消费端连接池）
+     */
+    public static <T> T onPrimary(Supplier<T> query) {
+        if (ROUTE_HOLDER.get() == Route.CONSUMER) {
+            return query.get();
+        }
+        return with(Route.PRIMARY, query);
+    }
+
+    /**
+     * 在消费端专用连接池上执行（MQ 消费者的下单、超时取消）
+     */
+    public static void onConsumer(Runnable task) {
+        with(Route.CONSUMER, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    private static <T> T with(Route route, Supplier<T> query) {
+        Route previous = ROUTE_HOLDER.get();
+        ROUTE_HOLDER.set(route);
+        try {
+            return query.get();
+        } finally {
+            if (previous == null) {
+                ROUTE_HOLDER.remove();
+            } else {
+                ROUTE_HOLDER.set(previous);
+            }
+        }
+    }
+}
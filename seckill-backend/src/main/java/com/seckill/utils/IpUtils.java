@@ -0,0 +1,30 @@
+package com.seckill.utils;
+
+import jakarta.servlet.http.HttpServletRequest;
+
+/**
+ * 客户端 IP 工具类
+ */
+public class IpUtils {
+
+    private IpUtils() {
+    }
+
+    /**
+     * 获取客户端真实 IP（依次取 X-Forwarded-For、X-Real-IP、RemoteAddr，多级代理取第一个）
+     */
+    public static String getClientIp(HttpServletRequest request) {
+        String ip = request.getHeader("X-Forwarded-For");
+        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
+            ip = request.getHeader("X-Real-IP");
+        }
+        if (ip == null || ip.isEmpty() || "unknown".equalsIgnoreCase(ip)) {
+            ip = request.getRemoteAddr();
+        }
+        // 多级代理取第一个
+        if (ip != null && ip.contains(",")) {
+            ip = ip.split(",")[0].trim();
+        }
+        return ip;
+    }
+}
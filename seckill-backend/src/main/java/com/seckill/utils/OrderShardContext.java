@@ -0,0 +1,39 @@
+package com.seckill.utils;
+
+import java.util.function.Supplier;
+
+/**
+ * 订单分表上下文 - 基于 ThreadLocal 标记当前线程访问订单表的哪个分片
+ * 由 OrderSharding 设置，MyBatis-Plus 动态表名插件读取并改写 t_order_info / t_seckill_order
+ */
+public final class OrderShardContext {
+
+    private static final ThreadLocal<Integer> SHARD_HOLDER = new ThreadLocal<>();
+
+    private OrderShardContext() {
+    }
+
+    /**
+     * 当前线程的分片，未标记返回 null
+     */
+    public static Integer current() {
+        return SHARD_HOLDER.get();
+    }
+
+    /**
+     * 在指定分片上执行（嵌套调用时结束后恢复外层分片）
+     */
+    public static <T> T on(int shard, Supplier<T> action) {
+        Integer previous = SHARD_HOLDER.get();
+        SHARD_HOLDER.set(shard);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                SHARD_HOLDER.remove();
+            } else {
+                SHARD_HOLDER.set(previous);
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.seckill.utils;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.HexFormat;
+
+/**
+ * 无状态秒杀路径签名工具
+ *
+ * <p>
+ * 路径格式: {过期时间(秒,16进制)}-{nonce(16进制)}-{签名(16进制)}
+ * 签名 = HMAC-SHA256(secret, userId|goodsId|expiry|nonce) 截取前 16 字节。
+ * 校验完全在进程内完成，不需要在 Redis 中保存路径。
+ * </p>
+ */
+@Component
+public class SeckillPathSigner {
+
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int NONCE_BYTES = 8;
+    private static final int SIGNATURE_BYTES = 16;
+    private static final HexFormat HEX = HexFormat.of();
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    @Value("${seckill.path.secret}")
+    private String secret;
+
+    /** Mac 非线程安全，每个线程持有一个实例 */
+    private final ThreadLocal<Mac> macHolder = ThreadLocal.withInitial(this::createMac);
+
+    /**
+     * 签发秒杀路径
+     */
+    public String sign(Long userId, Long seckillGoodsId, long ttlSeconds) {
+        long expiry = System.currentTimeMillis() / 1000 + ttlSeconds;
+        byte[] nonceBytes = new byte[NONCE_BYTES];
+        RANDOM.nextBytes(nonceBytes);
+        String expiryHex = Long.toHexString(expiry);
+        String nonce = HEX.formatHex(nonceBytes);
+        return expiryHex + "-" + nonce + "-" + HEX.formatHex(signature(userId, seckillGoodsId, expiryHex, nonce));
+    }
+
+    /**
+     * 校验秒杀路径（签名 + 有效期）
+     */
+    public boolean verify(Long userId, Long seckillGoodsId, String path) {
+        String[] parts = split(path);
+        if (parts == null) {
+            return false;
+        }
+        long expiry;
+        byte[] actual;
+        try {
+            expiry = Long.parseLong(parts[0], 16);
+            actual = HEX.parseHex(parts[2]);
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+        if (expiry < System.currentTimeMillis() / 1000) {
+            return false;
+        }
+        // 常量时间比较，防止时序攻击
+        return MessageDigest.isEqual(signature(userId, seckillGoodsId, parts[0], parts[1]), actual);
+    }
+
+    /**
+     * 取出路径中的 nonce（调用前应先 verify）
+     */
+    public String nonceOf(String path) {
+        String[] parts = split(path);
+        return parts != null ? parts[1] : null;
+    }
+
+    private String[] split(String path) {
+        if (path == null) {
+            return null;
+        }
+        String[] parts = path.split("-");
+        return parts.length == 3 ? parts : null;
+    }
+
+    private byte[] signature(Long userId, Long seckillGoodsId, String expiryHex, String nonce) {
+        String payload = userId + "|" + seckillGoodsId + "|" + expiryHex + "|" + nonce;
+        byte[] full = macHolder.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        byte[] truncated = new byte[SIGNATURE_BYTES];
+        System.arraycopy(full, 0, truncated, 0, SIGNATURE_BYTES);
+        return truncated;
+    }
+
+    private Mac createMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("初始化秒杀路径签名器失败", e);
+        }
+    }
+}
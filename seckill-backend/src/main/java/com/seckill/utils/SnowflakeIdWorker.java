@@ -0,0 +1,112 @@
+package com.seckill.utils;
+
+/**
+ * 时间有序的 ID 生成器（Snowflake 变体）
+ *
+ * <p>
+ * 位布局（共 53 位，JavaScript Number 可精确表示，前端无需把订单号改成字符串）：
+ * 41 位毫秒时间戳（自 2024-01-01 起，约 69 年）| 5 位 workerId（最多 32 个节点）| 7 位序列号（每节点每毫秒 128 个）
+ * </p>
+ *
+ * <p>
+ * 时钟回拨：回拨不超过 maxBackwardMillis 时沿用上一次的时间戳继续发号，不阻塞；超过则抛出异常拒绝发号。
+ * 同一毫秒序列号用尽时自旋等到下一毫秒。
+ * </p>
+ */
+public final class SnowflakeIdWorker {
+
+    /** 起始时间 2024-01-01T00:00:00Z */
+    public static final long EPOCH_MILLIS = 1704067200000L;
+    public static final int WORKER_BITS = 5;
+    public static final int SEQUENCE_BITS = 7;
+    public static final int MAX_WORKER_ID = (1 << WORKER_BITS) - 1;
+
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+    private static final int TIMESTAMP_SHIFT = WORKER_BITS + SEQUENCE_BITS;
+
+    private final long workerId;
+    private final long maxBackwardMillis;
+    private long lastTimestamp;
+    private long sequence;
+
+    /**
+     * @param workerId          0 ~ MAX_WORKER_ID
+     * @param lastTimestamp     该 workerId 此前发过号的最大时间戳（跨进程接续，防止重启后时钟落后造成重复）；
+     *                          上一个持有者可能已用掉该毫秒的任意序列号，因此从下一毫秒开始发号
+     * @param maxBackwardMillis 允许容忍的时钟回拨
+     */
+    public SnowflakeIdWorker(long workerId, long lastTimestamp, long maxBackwardMillis) {
+        if (workerId < 0 || workerId > MAX_WORKER_ID) {
+            throw new IllegalArgumentException("workerId 超出范围: " + workerId);
+        }
+        this.workerId = workerId;
+        this.lastTimestamp = lastTimestamp + 1;
+        this.maxBackwardMillis = maxBackwardMillis;
+    }
+
+    public synchronized long nextId() {
+        long id = tryNextId();
+        if (id >= 0) {
+            return id;
+        }
+        // 当前毫秒序列号已用尽，自旋等到下一毫秒
+        lastTimestamp = waitAfter(lastTimestamp);
+        sequence = 0;
+        return compose(lastTimestamp, sequence);
+    }
+
+    /**
+     * 不等待的发号：当前毫秒序列号已用尽时返回 -1，不自旋（供不能阻塞的事件循环线程使用）
+     */
+    public synchronized long tryNextId() {
+        long now = System.currentTimeMillis();
+        if (now < lastTimestamp) {
+            long backward = lastTimestamp - now;
+            if (backward > maxBackwardMillis) {
+                throw new IllegalStateException("时钟回拨 " + backward + "ms, 超过允许的 " + maxBackwardMillis + "ms");
+            }
+            now = lastTimestamp;
+        }
+        if (now == lastTimestamp) {
+            if (sequence == SEQUENCE_MASK) {
+                return -1;
+            }
+            sequence++;
+        } else {
+            sequence = 0;
+        }
+        lastTimestamp = now;
+        return compose(now, sequence);
+    }
+
+    public long getWorkerId() {
+        return workerId;
+    }
+
+    /**
+     * 已发号的最大时间戳
+     */
+    public synchronized long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    /**
+     * 从 ID 中解析生成时间（毫秒时间戳）
+     */
+    public static long timestampOf(long id) {
+        return (id >>> TIMESTAMP_SHIFT) + EPOCH_MILLIS;
+    }
+
+    private long compose(long timestamp, long seq) {
+        return ((timestamp - EPOCH_MILLIS) << TIMESTAMP_SHIFT) | (workerId << SEQUENCE_BITS) | seq;
+    }
+
+    private static long waitAfter(long timestamp) {
+        long now = System.currentTimeMillis();
+        while (now <= timestamp) {
+            Thread.onSpinWait();
+            now = System.currentTimeMillis();
+        }
+        return now;
+    }
+}
@@ -0,0 +1,28 @@
+package com.seckill.vo;
+
+import lombok.Data;
+
+/**
+ * 秒杀排队状态 VO
+ */
+@Data
+public class QueueStatusVo {
+
+    /** 排队号（doSeckill 受理时发放，同一商品内单调递增） */
+    private Long ticket;
+
+    /** 已处理完成的请求数 */
+    private Long processed;
+
+    /** 前方还有多少个请求（0 表示正在处理或即将出结果） */
+    private Long position;
+
+    /** 当前消费速率(个/秒)，-1 表示尚未采样到 */
+    private Double drainRate;
+
+    /** 预计等待秒数，-1 表示暂无法估算 */
+    private Long etaSeconds;
+
+    /** 建议的下次查询间隔(毫秒) */
+    private Long pollIntervalMs;
+}
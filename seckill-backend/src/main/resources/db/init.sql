@@ -59,7 +59,7 @@ CREATE TABLE `t_seckill_goods` (
 -- =============================================
 DROP TABLE IF EXISTS `t_order_info`;
 CREATE TABLE `t_order_info` (
-    `id`               BIGINT        NOT NULL AUTO_INCREMENT COMMENT '订单ID',
+    `id`               BIGINT        NOT NULL COMMENT '订单ID (应用分配的时间有序ID)',
     `user_id`          BIGINT        NOT NULL COMMENT '用户ID',
     `goods_id`         BIGINT        NOT NULL COMMENT '商品ID',
     `delivery_addr_id` BIGINT        DEFAULT NULL COMMENT '收货地址ID',
@@ -81,7 +81,7 @@ CREATE TABLE `t_order_info` (
 -- =============================================
 DROP TABLE IF EXISTS `t_seckill_order`;
 CREATE TABLE `t_seckill_order` (
-    `id`          BIGINT   NOT NULL AUTO_INCREMENT COMMENT '秒杀订单ID',
+    `id`          BIGINT   NOT NULL COMMENT '秒杀订单ID (应用分配的时间有序ID)',
     `user_id`     BIGINT   NOT NULL COMMENT '用户ID',
     `order_id`    BIGINT   NOT NULL COMMENT '关联订单ID',
     `goods_id`    BIGINT   NOT NULL COMMENT '关联商品ID',
@@ -90,6 +90,28 @@ CREATE TABLE `t_seckill_order` (
     UNIQUE KEY `uk_user_goods` (`user_id`, `goods_id`) COMMENT '用户+商品唯一索引，防止重复秒杀'
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='秒杀订单表';
 
+-- =============================================
+-- 6. 订单归档表 (已取消/已支付的历史订单，由 OrderArchiveService 定期从 t_order_info 搬迁)
+-- =============================================
+DROP TABLE IF EXISTS `t_order_info_archive`;
+CREATE TABLE `t_order_info_archive` (
+    `id`               BIGINT        NOT NULL COMMENT '订单ID',
+    `user_id`          BIGINT        NOT NULL COMMENT '用户ID',
+    `goods_id`         BIGINT        NOT NULL COMMENT '商品ID',
+    `delivery_addr_id` BIGINT        DEFAULT NULL COMMENT '收货地址ID',
+    `goods_name`       VARCHAR(100)  DEFAULT NULL COMMENT '商品名称',
+    `goods_count`      INT           NOT NULL DEFAULT 1 COMMENT '购买数量',
+    `goods_price`      DECIMAL(10,2) NOT NULL COMMENT '商品价格',
+    `status`           TINYINT       NOT NULL COMMENT '订单状态 (不含未支付)',
+    `pay_time`         DATETIME      DEFAULT NULL COMMENT '支付时间',
+    `create_time`      DATETIME      NOT NULL COMMENT '创建时间',
+    `update_time`      DATETIME      NOT NULL COMMENT '更新时间',
+    `deleted`          TINYINT       NOT NULL DEFAULT 0 COMMENT '逻辑删除: 0-未删除 1-已删除',
+    `archive_time`     DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '归档时间',
+    PRIMARY KEY (`id`),
+    KEY `idx_user_id` (`user_id`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8 COMMENT='订单归档表';
+
 -- =============================================
 -- 初始化测试数据
 -- =============================================
@@ -0,0 +1,37 @@
+package com.seckill.benchmark;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * 基准测试入口
+ *
+ * <p>
+ * 接受所有 JMH 命令行参数（如 "RedisScript" 只跑脚本基准，"-f 0" 调试）；
+ * 未指定时结果默认以 JSON 写入 jmh-result.json，便于按提交归档和对比回归。
+ * </p>
+ */
+public final class BenchmarkRunner {
+
+    private static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        CommandLineOptions cmd = new CommandLineOptions(args);
+        ChainedOptionsBuilder builder = new OptionsBuilder().parent(cmd);
+        if (!cmd.getResultFormat().hasValue()) {
+            builder.resultFormat(ResultFormatType.JSON);
+        }
+        if (!cmd.getResult().hasValue()) {
+            builder.result(DEFAULT_RESULT_FILE);
+        }
+        new Runner(builder.build()).run();
+    }
+}
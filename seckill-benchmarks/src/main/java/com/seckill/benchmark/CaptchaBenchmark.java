@@ -0,0 +1,74 @@
+package com.seckill.benchmark;
+
+import com.seckill.service.CaptchaPool;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 验证码接口的两种代价对比
+ * render：渲染开销（Java2D 绘图 + PNG 编码 + Base64），即验证码池为空、请求线程同步生成时的代价，也是补货线程生成一个条目的代价
+ * take：从预填满的验证码池出队，即池未被抽空时请求线程的代价
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CaptchaBenchmark {
+
+    /** 每次调用连续取出的条目数，池容量与之相同 */
+    private static final int BATCH = 1024;
+
+    private CaptchaPool pool;
+    private BlockingQueue<CaptchaPool.CaptchaImage> queue;
+    private CaptchaPool.CaptchaImage[] rendered;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        pool = new CaptchaPool();
+        ReflectionTestUtils.setField(pool, "poolSize", BATCH);
+        ReflectionTestUtils.setField(pool, "refillThreads", 1);
+        pool.start();
+        queue = (BlockingQueue<CaptchaPool.CaptchaImage>) ReflectionTestUtils.getField(pool, "pool");
+        rendered = new CaptchaPool.CaptchaImage[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            rendered[i] = CaptchaPool.render();
+        }
+    }
+
+    /**
+     * 补满验证码池（不计入耗时），保证 take 全部命中池、不退化为同步生成
+     * 补货线程同时也在补货，队列满即停止
+     */
+    @Setup(Level.Invocation)
+    public void refill() {
+        for (int i = 0; queue.remainingCapacity() > 0; i = (i + 1) % BATCH) {
+            queue.offer(rendered[i]);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.stop();
+    }
+
+    @Benchmark
+    public CaptchaPool.CaptchaImage render() {
+        return CaptchaPool.render();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public CaptchaPool.CaptchaImage take() {
+        CaptchaPool.CaptchaImage last = null;
+        for (int i = 0; i < BATCH; i++) {
+            last = pool.take();
+        }
+        return last;
+    }
+}
@@ -0,0 +1,44 @@
+package com.seckill.benchmark;
+
+import com.seckill.utils.IpUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IpUtils.getClientIp 开销（RateLimitInterceptor 未登录限流时每个请求调用一次）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ClientIpBenchmark {
+
+    private MockHttpServletRequest direct;
+    private MockHttpServletRequest proxied;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        direct = new MockHttpServletRequest();
+        direct.setRemoteAddr("203.0.113.7");
+
+        proxied = new MockHttpServletRequest();
+        proxied.setRemoteAddr("10.0.0.2");
+        proxied.addHeader("X-Forwarded-For", "203.0.113.7, 198.51.100.23, 10.0.0.1");
+    }
+
+    /** 无代理：两次取头均未命中，回退 RemoteAddr */
+    @Benchmark
+    public String direct() {
+        return IpUtils.getClientIp(direct);
+    }
+
+    /** 多级代理：X-Forwarded-For 取第一段 */
+    @Benchmark
+    public String proxied() {
+        return IpUtils.getClientIp(proxied);
+    }
+}
@@ -0,0 +1,172 @@
+package com.seckill.benchmark;
+
+import com.seckill.common.SeckillKeys;
+import com.seckill.config.RedisConfig;
+import io.lettuce.core.cluster.SlotHash;
+import org.springframework.data.redis.connection.RedisClusterConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RedisConfig 中多 key Lua 脚本在真实 Redis Cluster 上的冒烟检查
+ *
+ * <p>
+ * jedis-mock 只能模拟单机，CROSSSLOT 问题只有在真实集群上才会暴露。
+ * 本检查对若干商品依次执行全部多 key 脚本，确认：同一脚本的 key 落在同一槽位、脚本在集群上执行结果正确、
+ * 不同商品分散到不同槽位。任一项失败时以非 0 退出码结束，可直接放进发布流水线。
+ * </p>
+ *
+ * <pre>
+ * docker run -d --name redis-cluster -e IP=0.0.0.0 -p 7000-7005:7000-7005 grokzen/redis-cluster:7.0.10
+ * java -cp seckill-benchmarks/target/benchmarks.jar com.seckill.benchmark.ClusterScriptCheck 127.0.0.1:7000,127.0.0.1:7001
+ * </pre>
+ *
+ * 节点列表缺省读取环境变量 REDIS_CLUSTER_NODES（与 application-cluster.yml 一致）。
+ */
+public final class ClusterScriptCheck {
+
+    private static final String DEFAULT_NODES = "127.0.0.1:7000,127.0.0.1:7001,127.0.0.1:7002";
+    /** 覆盖多个槽位的商品ID */
+    private static final long[] GOODS_IDS = {1, 2, 3, 42, 1001, 65536};
+    private static final long USER_ID = 7;
+    private static final long TTL_SECONDS = 60;
+    private static final String NONCE = "00c0ffee00c0ffee";
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RedisConfig config = new RedisConfig();
+    private int failures;
+
+    private ClusterScriptCheck(RedisTemplate<String, Object> redisTemplate) {
+        this.redisTemplate = redisTemplate;
+    }
+
+    public static void main(String[] args) {
+        String nodes = args.length > 0 ? args[0]
+                : Objects.requireNonNullElse(System.getenv("REDIS_CLUSTER_NODES"), DEFAULT_NODES);
+        LettuceConnectionFactory factory = new LettuceConnectionFactory(
+                new RedisClusterConfiguration(Arrays.asList(nodes.split(","))));
+        factory.afterPropertiesSet();
+        factory.start();
+        int failures;
+        try {
+            ClusterScriptCheck check = new ClusterScriptCheck(new RedisConfig().redisTemplate(factory));
+            check.run();
+            failures = check.failures;
+        } finally {
+            factory.destroy();
+        }
+        System.out.println(failures == 0 ? "ALL PASSED" : failures + " CHECK(S) FAILED");
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    private void run() {
+        Set<Integer> slots = new HashSet<>();
+        for (long goodsId : GOODS_IDS) {
+            slots.add(slotOf(SeckillKeys.stock(goodsId)));
+            cleanUp(goodsId);
+            checkSeckillScript(goodsId);
+            cleanUp(goodsId);
+            checkNonceReplay(goodsId);
+            checkCompactScript(goodsId);
+            checkRepairScript(goodsId);
+            checkCaptchaPathScript(goodsId);
+            cleanUp(goodsId);
+        }
+        expect("商品分散到多个槽位", slots.size() > 1, slots);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void checkSeckillScript(long goodsId) {
+        List<String> keys = List.of(SeckillKeys.stock(goodsId), SeckillKeys.order(USER_ID, goodsId),
+                SeckillKeys.ticket(goodsId));
+        sameSlot("seckillScript", goodsId, keys);
+        redisTemplate.opsForValue().set(keys.get(0), 1);
+        List accepted = redisTemplate.execute(config.seckillScript(), keys, TTL_SECONDS, "1", goodsId);
+        List repeat = redisTemplate.execute(config.seckillScript(), keys, TTL_SECONDS, "1", goodsId);
+        expect("seckillScript 受理 goodsId=" + goodsId, accepted != null && toLong(accepted.get(0)) > 0, accepted);
+        expect("seckillScript 重复 goodsId=" + goodsId, repeat != null && toLong(repeat.get(0)) == -1, repeat);
+    }
+
+    /**
+     * hmac 路径模式：订单标记被清除（失败补偿、取消订单）后，同一令牌仍被 nonce 记录拦截
+     */
+    @SuppressWarnings("rawtypes")
+    private void checkNonceReplay(long goodsId) {
+        List<String> keys = List.of(SeckillKeys.stock(goodsId), SeckillKeys.order(USER_ID, goodsId),
+                SeckillKeys.ticket(goodsId), SeckillKeys.pathNonce(goodsId, NONCE));
+        sameSlot("seckillScript(hmac)", goodsId, keys);
+        redisTemplate.opsForValue().set(keys.get(0), 2);
+        List accepted = redisTemplate.execute(config.seckillScript(), keys, TTL_SECONDS, NONCE, goodsId, TTL_SECONDS);
+        redisTemplate.delete(keys.get(1));
+        List replay = redisTemplate.execute(config.seckillScript(), keys, TTL_SECONDS, NONCE, goodsId, TTL_SECONDS);
+        expect("seckillScript 令牌受理 goodsId=" + goodsId, accepted != null && toLong(accepted.get(0)) > 0, accepted);
+        expect("seckillScript 令牌重放 goodsId=" + goodsId, replay != null && toLong(replay.get(0)) == -1, replay);
+    }
+
+    @SuppressWarnings("rawtypes")
+    private void checkCompactScript(long goodsId) {
+        List<String> keys = List.of(SeckillKeys.stock(goodsId), SeckillKeys.buyers(goodsId),
+                SeckillKeys.ticket(goodsId));
+        sameSlot("seckillCompactScript", goodsId, keys);
+        redisTemplate.opsForValue().set(keys.get(0), 1);
+        long expireAt = System.currentTimeMillis() / 1000 + TTL_SECONDS;
+        List accepted = redisTemplate.execute(config.seckillCompactScript(), keys, expireAt, USER_ID, goodsId);
+        expect("seckillCompactScript 受理 goodsId=" + goodsId, accepted != null && toLong(accepted.get(0)) > 0, accepted);
+    }
+
+    private void checkRepairScript(long goodsId) {
+        List<String> keys = List.of(SeckillKeys.stock(goodsId), SeckillKeys.ticket(goodsId),
+                SeckillKeys.queueDone(goodsId));
+        sameSlot("stockRepairScript", goodsId, keys);
+        redisTemplate.opsForValue().set(keys.get(0), 5);
+        redisTemplate.opsForValue().set(keys.get(1), 3);
+        redisTemplate.opsForValue().set(keys.get(2), 3);
+        Long repaired = redisTemplate.execute(config.stockRepairScript(), keys, 5, 3, 3, 4);
+        expect("stockRepairScript 修复 goodsId=" + goodsId, Long.valueOf(1).equals(repaired), repaired);
+    }
+
+    private void checkCaptchaPathScript(long goodsId) {
+        List<String> keys = List.of(SeckillKeys.captcha(USER_ID, goodsId), SeckillKeys.path(USER_ID, goodsId));
+        sameSlot("captchaPathScript", goodsId, keys);
+        redisTemplate.opsForValue().set(keys.get(0), 7, TTL_SECONDS, TimeUnit.SECONDS);
+        Long result = redisTemplate.execute(config.captchaPathScript(), keys, 7, "path", TTL_SECONDS);
+        expect("captchaPathScript 校验 goodsId=" + goodsId, Long.valueOf(1).equals(result), result);
+    }
+
+    private void cleanUp(long goodsId) {
+        // 同一商品的 key 同槽，单次 DEL 即可
+        redisTemplate.delete(List.of(SeckillKeys.stock(goodsId), SeckillKeys.ticket(goodsId),
+                SeckillKeys.queueDone(goodsId), SeckillKeys.order(USER_ID, goodsId),
+                SeckillKeys.buyers(goodsId), SeckillKeys.path(USER_ID, goodsId),
+                SeckillKeys.pathNonce(goodsId, NONCE)));
+    }
+
+    private void sameSlot(String script, long goodsId, List<String> keys) {
+        Set<Integer> slots = new HashSet<>();
+        keys.forEach(k -> slots.add(slotOf(k)));
+        expect(script + " 同槽 goodsId=" + goodsId, slots.size() == 1, slots);
+    }
+
+    private void expect(String name, boolean ok, Object actual) {
+        System.out.println((ok ? "[PASS] " : "[FAIL] ") + name + " -> " + actual);
+        if (!ok) {
+            failures++;
+        }
+    }
+
+    private static int slotOf(String key) {
+        return SlotHash.getSlot(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static long toLong(Object value) {
+        return ((Number) value).longValue();
+    }
+}
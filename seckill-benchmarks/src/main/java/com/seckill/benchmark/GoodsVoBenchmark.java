@@ -0,0 +1,60 @@
+package com.seckill.benchmark;
+
+import com.seckill.entity.SeckillGoods;
+import com.seckill.service.GoodsService;
+import com.seckill.vo.SeckillGoodsVo;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GoodsService.buildSeckillGoodsVo 开销（商品列表/详情每次缓存未命中都要对每个商品调用一次）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GoodsVoBenchmark {
+
+    private SeckillGoods ongoing;
+    private SeckillGoods notStarted;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        ongoing = goods(now.minusHours(1), now.plusHours(1));
+        notStarted = goods(now.plusHours(1), now.plusHours(2));
+    }
+
+    @Benchmark
+    public SeckillGoodsVo ongoing() {
+        return GoodsService.buildSeckillGoodsVo(ongoing);
+    }
+
+    /** 未开始分支额外计算倒计时 */
+    @Benchmark
+    public SeckillGoodsVo notStarted() {
+        return GoodsService.buildSeckillGoodsVo(notStarted);
+    }
+
+    static SeckillGoods goods(LocalDateTime start, LocalDateTime end) {
+        SeckillGoods sg = new SeckillGoods();
+        sg.setId(1L);
+        sg.setGoodsName("iPhone 15 Pro");
+        sg.setGoodsTitle("A17 Pro 芯片 钛金属设计");
+        sg.setGoodsImg("/img/iphone15pro.png");
+        sg.setGoodsDetail("秒杀专享价，限量发售");
+        sg.setGoodsPrice(new BigDecimal("7999.00"));
+        sg.setSeckillPrice(new BigDecimal("4999.00"));
+        sg.setStockCount(100);
+        sg.setStartDate(start);
+        sg.setEndDate(end);
+        sg.setSeckillStatus(1);
+        sg.setGoodsStatus(1);
+        return sg;
+    }
+}
@@ -0,0 +1,48 @@
+package com.seckill.benchmark;
+
+import com.seckill.utils.JwtUtils;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JwtUtils 签发与解析校验开销（JwtInterceptor 每个请求都会走解析）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtils jwtUtils;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        jwtUtils = new JwtUtils();
+        // 与 application.yml 默认配置一致
+        ReflectionTestUtils.setField(jwtUtils, "secret", "seckill-system-jwt-secret-key-2024-must-be-at-least-256-bits-long");
+        ReflectionTestUtils.setField(jwtUtils, "expiration", 86_400_000L);
+        token = jwtUtils.generateToken(10001L, "13800000000", 0);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtils.generateToken(10001L, "13800000000", 0);
+    }
+
+    /** 解析 + 验签 */
+    @Benchmark
+    public Object parseToken() {
+        return jwtUtils.parseToken(token);
+    }
+
+    /** JwtInterceptor 的取用户ID路径 */
+    @Benchmark
+    public Long getUserId() {
+        return jwtUtils.getUserId(token);
+    }
+}
@@ -0,0 +1,133 @@
+package com.seckill.benchmark;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.seckill.common.SeckillKeys;
+import com.seckill.config.PurchaseRedisConnection;
+import com.seckill.config.RedisConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 抢购链路 Redis 连接模式对比：独立连接池 vs 共享多路复用连接
+ *
+ * <p>
+ * 每次调用由 callers 个线程同时发起一轮热点请求（Token GET → 限流脚本 → 秒杀脚本 → 结果 GET），
+ * 全部完成后计时结束，结果为一轮的耗时，除以 callers 即单个请求的平均 Redis 耗时。
+ * </p>
+ *
+ * <ul>
+ * <li>pooled：PurchaseRedisConnection 连接池模式，与主连接池相同的 max-active=20（max-wait 放宽到 30 秒，只比较排队不比较失败）</li>
+ * <li>shared：1 个共享连接，不合并 flush</li>
+ * <li>shared-consolidated：2 个共享连接 + FlushConsolidationHandler（seckill.bulkhead.redis 的 shared 模式默认值）</li>
+ * </ul>
+ *
+ * 使用 jedis-mock 作为进程内 Redis 替身，绝对数值不代表真实 Redis，只看同一台机器上各模式的相对差异；
+ * 10000 个调用线程需要较大的线程数上限（ulimit -u）。
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RedisConnectionModeBenchmark {
+
+    private static final long GOODS_ID = 1L;
+    private static final String STOCK_KEY = SeckillKeys.stock(GOODS_ID);
+    private static final String TICKET_KEY = SeckillKeys.ticket(GOODS_ID);
+    private static final String TOKEN_KEY = "seckill:user:token:";
+    private static final long ORDER_MARK_TTL_SECONDS = 24 * 3600;
+
+    @Param({"pooled", "shared", "shared-consolidated"})
+    private String mode;
+
+    @Param({"1000", "10000"})
+    private int callers;
+
+    private RedisServer server;
+    private LettuceConnectionFactory baseFactory;
+    private PurchaseRedisConnection connection;
+    private RedisTemplate<String, Object> redisTemplate;
+    private ExecutorService executor;
+
+    @SuppressWarnings("rawtypes")
+    private DefaultRedisScript<List> seckillScript;
+    private DefaultRedisScript<Long> rateLimitScript;
+
+    /** 每个请求使用不同的用户，秒杀脚本走"受理成功"分支 */
+    private final AtomicLong userSeq = new AtomicLong(1);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = RedisServer.newRedisServer().start();
+        baseFactory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(server.getHost(), server.getBindPort()));
+        baseFactory.afterPropertiesSet();
+        baseFactory.start();
+
+        connection = switch (mode) {
+            case "pooled" -> new PurchaseRedisConnection(baseFactory, true, PurchaseRedisConnection.Mode.POOLED,
+                    20, 30_000, 0, 0);
+            case "shared" -> new PurchaseRedisConnection(baseFactory, true, PurchaseRedisConnection.Mode.SHARED,
+                    0, 0, 1, 0);
+            default -> new PurchaseRedisConnection(baseFactory, true, PurchaseRedisConnection.Mode.SHARED,
+                    0, 0, 2, 256);
+        };
+        RedisConfig config = new RedisConfig();
+        redisTemplate = config.purchaseRedisTemplate(connection);
+        seckillScript = config.seckillScript();
+        rateLimitScript = config.rateLimitScript();
+
+        redisTemplate.opsForValue().set(STOCK_KEY, Integer.MAX_VALUE);
+        executor = Executors.newFixedThreadPool(callers);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        executor.shutdownNow();
+        connection.destroy();
+        baseFactory.destroy();
+        server.stop();
+    }
+
+    /** callers 个并发请求各走一遍抢购链路的 Redis 调用 */
+    @Benchmark
+    public long concurrentHotPath() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(callers);
+        for (int i = 0; i < callers; i++) {
+            long userId = userSeq.incrementAndGet();
+            executor.execute(() -> {
+                try {
+                    hotPath(userId);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+        return done.getCount();
+    }
+
+    private void hotPath(long userId) {
+        redisTemplate.opsForValue().get(TOKEN_KEY + userId);
+        redisTemplate.execute(rateLimitScript,
+                Collections.singletonList("rate_limit:/seckill/1:" + userId), 5L);
+        redisTemplate.execute(seckillScript,
+                Arrays.asList(STOCK_KEY, SeckillKeys.order(userId, GOODS_ID), TICKET_KEY),
+                ORDER_MARK_TTL_SECONDS, "1", GOODS_ID);
+        redisTemplate.opsForValue().get(SeckillKeys.result(userId, GOODS_ID));
+    }
+}
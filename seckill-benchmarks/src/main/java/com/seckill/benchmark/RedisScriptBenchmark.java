@@ -0,0 +1,137 @@
+package com.seckill.benchmark;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.seckill.common.SeckillKeys;
+import com.seckill.config.RedisConfig;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * RedisConfig 中 Lua 脚本的执行开销（含序列化 + 一次网络往返）
+ *
+ * <p>
+ * 使用 jedis-mock 作为进程内 Redis 替身，绝对数值不代表真实 Redis，
+ * 用于同一台机器上跨提交对比脚本改动带来的相对变化。
+ * </p>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RedisScriptBenchmark {
+
+    private static final long GOODS_ID = 1L;
+    private static final long SOLD_OUT_GOODS_ID = 2L;
+    private static final String STOCK_KEY = SeckillKeys.stock(GOODS_ID);
+    private static final String SOLD_OUT_STOCK_KEY = SeckillKeys.stock(SOLD_OUT_GOODS_ID);
+    private static final String TICKET_KEY = SeckillKeys.ticket(GOODS_ID);
+    private static final String REPEAT_ORDER_KEY = SeckillKeys.order(0L, GOODS_ID);
+    private static final String BUYERS_KEY = SeckillKeys.buyers(GOODS_ID);
+    private static final long ORDER_MARK_TTL_SECONDS = 24 * 3600;
+
+    private RedisServer server;
+    private LettuceConnectionFactory factory;
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @SuppressWarnings("rawtypes")
+    private DefaultRedisScript<List> seckillScript;
+    @SuppressWarnings("rawtypes")
+    private DefaultRedisScript<List> seckillCompactScript;
+    private DefaultRedisScript<Long> rateLimitScript;
+    private DefaultRedisScript<Long> captchaPathScript;
+
+    /** 每次调用使用不同的用户，保证走"受理成功"分支 */
+    private final AtomicLong userSeq = new AtomicLong(1);
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        server = RedisServer.newRedisServer().start();
+        factory = new LettuceConnectionFactory(
+                new RedisStandaloneConfiguration(server.getHost(), server.getBindPort()));
+        factory.afterPropertiesSet();
+        factory.start();
+
+        RedisConfig config = new RedisConfig();
+        redisTemplate = config.redisTemplate(factory);
+        seckillScript = config.seckillScript();
+        seckillCompactScript = config.seckillCompactScript();
+        rateLimitScript = config.rateLimitScript();
+        captchaPathScript = config.captchaPathScript();
+
+        redisTemplate.opsForValue().set(STOCK_KEY, Integer.MAX_VALUE);
+        redisTemplate.opsForValue().set(SOLD_OUT_STOCK_KEY, 0);
+        redisTemplate.opsForValue().set(REPEAT_ORDER_KEY, "1");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        factory.destroy();
+        server.stop();
+    }
+
+    /** 秒杀脚本：受理成功（去重 + 扣库存 + 写标记 + 发排队号） */
+    @Benchmark
+    public Object seckillAccepted() {
+        long userId = userSeq.incrementAndGet();
+        return redisTemplate.execute(seckillScript,
+                Arrays.asList(STOCK_KEY, SeckillKeys.order(userId, GOODS_ID), TICKET_KEY),
+                ORDER_MARK_TTL_SECONDS, "1", GOODS_ID);
+    }
+
+    /** 紧凑存储模式的秒杀脚本：受理成功（标记写入按商品的位图） */
+    @Benchmark
+    public Object seckillAcceptedCompact() {
+        long userId = userSeq.incrementAndGet();
+        return redisTemplate.execute(seckillCompactScript,
+                Arrays.asList(STOCK_KEY, BUYERS_KEY, TICKET_KEY),
+                System.currentTimeMillis() / 1000 + ORDER_MARK_TTL_SECONDS, userId, GOODS_ID);
+    }
+
+    /** 秒杀脚本：重复秒杀，第一步即返回 */
+    @Benchmark
+    public Object seckillRepeat() {
+        return redisTemplate.execute(seckillScript,
+                Arrays.asList(STOCK_KEY, REPEAT_ORDER_KEY, TICKET_KEY),
+                ORDER_MARK_TTL_SECONDS, "1", GOODS_ID);
+    }
+
+    /** 秒杀脚本：库存为 0（售罄后内存标记未命中时的代价） */
+    @Benchmark
+    public Object seckillSoldOut() {
+        long userId = userSeq.incrementAndGet();
+        return redisTemplate.execute(seckillScript,
+                Arrays.asList(SOLD_OUT_STOCK_KEY, SeckillKeys.order(userId, SOLD_OUT_GOODS_ID),
+                        SeckillKeys.ticket(SOLD_OUT_GOODS_ID)),
+                ORDER_MARK_TTL_SECONDS, "1", SOLD_OUT_GOODS_ID);
+    }
+
+    /** 限流脚本 */
+    @Benchmark
+    public Long rateLimit() {
+        return redisTemplate.execute(rateLimitScript,
+                Collections.singletonList("rate_limit:/seckill/path/1:1"), 5L);
+    }
+
+    /** 验证码校验 + 铸造路径（含一次准备验证码答案的 SET） */
+    @Benchmark
+    public Long captchaPath() {
+        long userId = userSeq.incrementAndGet();
+        String captchaKey = SeckillKeys.captcha(userId, GOODS_ID);
+        redisTemplate.opsForValue().set(captchaKey, 7, 2, TimeUnit.MINUTES);
+        return redisTemplate.execute(captchaPathScript,
+                Arrays.asList(captchaKey, SeckillKeys.path(userId, GOODS_ID)),
+                7, "path", 60L);
+    }
+}
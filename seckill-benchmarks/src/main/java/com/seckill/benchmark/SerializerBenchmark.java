@@ -0,0 +1,101 @@
+package com.seckill.benchmark;
+
+import com.seckill.config.RedisConfig;
+import com.seckill.dto.SeckillMessage;
+import com.seckill.service.GoodsService;
+import com.seckill.vo.SeckillGoodsVo;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson 序列化开销
+ * Redis: RedisConfig 中带类型信息的 GenericJackson2JsonRedisSerializer（商品详情/列表缓存）
+ * MQ: Jackson2JsonMessageConverter（秒杀消息）
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SerializerBenchmark {
+
+    /** 商品列表缓存的典型条数 */
+    private static final int LIST_SIZE = 20;
+
+    private RedisSerializer<Object> redisSerializer;
+    private Jackson2JsonMessageConverter messageConverter;
+
+    private SeckillGoodsVo goodsVo;
+    private List<SeckillGoodsVo> goodsList;
+    private byte[] goodsVoBytes;
+    private byte[] goodsListBytes;
+    private SeckillMessage seckillMessage;
+    private Message amqpMessage;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        // 只取序列化器，连接工厂不会被启动
+        redisSerializer = (RedisSerializer<Object>) new RedisConfig()
+                .redisTemplate(new LettuceConnectionFactory())
+                .getValueSerializer();
+        messageConverter = new Jackson2JsonMessageConverter();
+
+        LocalDateTime now = LocalDateTime.now();
+        goodsVo = GoodsService.buildSeckillGoodsVo(GoodsVoBenchmark.goods(now.minusHours(1), now.plusHours(1)));
+        goodsList = new ArrayList<>();
+        for (int i = 0; i < LIST_SIZE; i++) {
+            goodsList.add(goodsVo);
+        }
+        goodsVoBytes = redisSerializer.serialize(goodsVo);
+        goodsListBytes = redisSerializer.serialize(goodsList);
+
+        seckillMessage = new SeckillMessage();
+        seckillMessage.setUserId(10001L);
+        seckillMessage.setSeckillGoodsId(1L);
+        seckillMessage.setRequestId("3f1c9a52-8b0e-4d7a-9c61-2f5e8d4b7a10");
+        seckillMessage.setAcceptTime(System.currentTimeMillis());
+        seckillMessage.setTicket(42L);
+        amqpMessage = messageConverter.toMessage(seckillMessage, new MessageProperties());
+    }
+
+    @Benchmark
+    public byte[] redisSerializeGoodsVo() {
+        return redisSerializer.serialize(goodsVo);
+    }
+
+    @Benchmark
+    public Object redisDeserializeGoodsVo() {
+        return redisSerializer.deserialize(goodsVoBytes);
+    }
+
+    @Benchmark
+    public byte[] redisSerializeGoodsList() {
+        return redisSerializer.serialize(goodsList);
+    }
+
+    @Benchmark
+    public Object redisDeserializeGoodsList() {
+        return redisSerializer.deserialize(goodsListBytes);
+    }
+
+    @Benchmark
+    public Message mqToMessage() {
+        return messageConverter.toMessage(seckillMessage, new MessageProperties());
+    }
+
+    @Benchmark
+    public Object mqFromMessage() {
+        return messageConverter.fromMessage(amqpMessage);
+    }
+}
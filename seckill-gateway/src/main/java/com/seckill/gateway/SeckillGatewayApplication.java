@@ -0,0 +1,41 @@
+package com.seckill.gateway;
+
+import com.seckill.service.OrderIdGenerator;
+import com.seckill.utils.JwtUtils;
+import com.seckill.utils.SeckillPathSigner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.annotation.Import;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * 响应式秒杀网关启动类
+ *
+ * <p>
+ * 只承载抢购链路：获取路径、执行秒杀、查询结果，与 seckill-backend 共用 Redis、RabbitMQ、Lua 脚本和 key 布局，可并排部署，
+ * 由负载均衡按路径把 /api/seckill/path、/api/seckill/{path}/do、/api/seckill/result 转发到网关。
+ * 登录、验证码、商品、订单、下单消费仍由 seckill-backend 负责；网关不连接 MySQL。
+ * </p>
+ *
+ * 配置文件为 gateway.yml（与后端的 application.yml 在压测时同处一个 classpath）。
+ */
+@SpringBootApplication(exclude = DataSourceAutoConfiguration.class)
+@Import({JwtUtils.class, SeckillPathSigner.class, OrderIdGenerator.class})
+@EnableScheduling
+public class SeckillGatewayApplication {
+
+    public static void main(String[] args) {
+        builder().run(args);
+    }
+
+    /**
+     * 网关应用构建器（压测入口在同一进程内启动网关时复用）
+     */
+    public static SpringApplicationBuilder builder() {
+        return new SpringApplicationBuilder(SeckillGatewayApplication.class)
+                .web(WebApplicationType.REACTIVE)
+                .properties("spring.config.name=gateway");
+    }
+}
@@ -0,0 +1,88 @@
+package com.seckill.gateway.config;
+
+import com.rabbitmq.client.ConnectionFactory;
+import com.seckill.config.RedisConfig;
+import org.springframework.boot.autoconfigure.amqp.RabbitProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+import reactor.core.scheduler.Schedulers;
+import reactor.rabbitmq.RabbitFlux;
+import reactor.rabbitmq.Sender;
+import reactor.rabbitmq.SenderOptions;
+
+import java.util.List;
+
+/**
+ * 网关配置：响应式 Redis 模板、与后端同一份 Lua 脚本、响应式 RabbitMQ 发送端
+ */
+@Configuration
+public class GatewayConfig {
+
+    /** 脚本定义只在后端 RedisConfig 维护一份 */
+    private final RedisConfig scripts = new RedisConfig();
+
+    /**
+     * 响应式 RedisTemplate：key 为字符串，value 与脚本参数使用后端同一个 JSON 序列化器
+     */
+    @Bean
+    public ReactiveRedisTemplate<String, Object> reactiveRedisTemplate(ReactiveRedisConnectionFactory factory) {
+        StringRedisSerializer stringSerializer = new StringRedisSerializer();
+        RedisSerializationContext<String, Object> context = RedisSerializationContext
+                .<String, Object>newSerializationContext(RedisConfig.jsonSerializer())
+                .key(stringSerializer)
+                .hashKey(stringSerializer)
+                .build();
+        return new ReactiveRedisTemplate<>(factory, context);
+    }
+
+    @Bean
+    @SuppressWarnings("rawtypes")
+    public DefaultRedisScript<List> seckillScript() {
+        return scripts.seckillScript();
+    }
+
+    @Bean
+    public DefaultRedisScript<Long> rateLimitScript() {
+        return scripts.rateLimitScript();
+    }
+
+    @Bean
+    public DefaultRedisScript<Long> captchaPathScript() {
+        return scripts.captchaPathScript();
+    }
+
+    /** 订单号 workerId 租约（OrderIdGenerator 与后端节点共用租约空间，各自分到不同的 workerId） */
+    @Bean
+    public DefaultRedisScript<Long> workerLeaseRenewScript() {
+        return scripts.workerLeaseRenewScript();
+    }
+
+    @Bean
+    public DefaultRedisScript<Long> workerLeaseReleaseScript() {
+        return scripts.workerLeaseReleaseScript();
+    }
+
+    /**
+     * reactor-rabbitmq 发送端（沿用 spring.rabbitmq 配置，连接在首次发送时建立）
+     */
+    @Bean(destroyMethod = "close")
+    public Sender rabbitSender(RabbitProperties properties) {
+        ConnectionFactory connectionFactory = new ConnectionFactory();
+        connectionFactory.setHost(properties.determineHost());
+        connectionFactory.setPort(properties.determinePort());
+        connectionFactory.setUsername(properties.determineUsername());
+        connectionFactory.setPassword(properties.determinePassword());
+        if (properties.determineVirtualHost() != null) {
+            connectionFactory.setVirtualHost(properties.determineVirtualHost());
+        }
+        connectionFactory.useNio();
+        return RabbitFlux.createSender(new SenderOptions()
+                .connectionFactory(connectionFactory)
+                .resourceManagementScheduler(Schedulers.boundedElastic()));
+    }
+}
@@ -0,0 +1,82 @@
+package com.seckill.gateway.controller;
+
+import com.seckill.common.Result;
+import com.seckill.common.ResultCode;
+import com.seckill.gateway.filter.ReactiveAuthFilter;
+import com.seckill.gateway.service.ReactiveRateLimiter;
+import com.seckill.gateway.service.ReactiveSeckillService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+/**
+ * 响应式秒杀控制器 - 与后端 SeckillController 的路径、受理、结果接口保持相同的 URL、参数和返回体，
+ * 前端或压测脚本只需切换地址即可在两套网关之间切换
+ * 安全层级与后端一致: 验证码 → 秒杀path → 限流 → 内存标记+Redis预减+MQ异步
+ */
+@RestController
+@RequestMapping("/seckill")
+@RequiredArgsConstructor
+public class ReactiveSeckillController {
+
+    private final ReactiveSeckillService seckillService;
+    private final ReactiveRateLimiter rateLimiter;
+
+    /** 降级轮询时服务端建议的轮询间隔(毫秒) */
+    private static final String POLL_INTERVAL_HEADER = "X-Poll-Interval";
+
+    /** 轮询间隔（网关不采样消费速率，固定使用默认间隔） */
+    @Value("${seckill.result.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    @GetMapping("/path/{seckillGoodsId}")
+    public Mono<Result<Map<String, String>>> getSeckillPath(
+            @PathVariable Long seckillGoodsId,
+            @RequestParam int captcha,
+            @RequestAttribute(ReactiveAuthFilter.USER_ID) Long userId,
+            ServerHttpRequest request) {
+        return rateLimiter.check(request, userId, 5, 5)
+                .then(Mono.defer(() -> seckillService.createSeckillPath(userId, seckillGoodsId, captcha)))
+                .map(path -> Result.success(Map.of("path", path)));
+    }
+
+    @PostMapping("/{path}/do/{seckillGoodsId}")
+    public Mono<Result<Map<String, Long>>> doSeckill(
+            @PathVariable String path,
+            @PathVariable Long seckillGoodsId,
+            @RequestAttribute(ReactiveAuthFilter.USER_ID) Long userId,
+            ServerHttpRequest request) {
+        return rateLimiter.check(request, userId, 5, 3)
+                .then(Mono.defer(() -> seckillService.validateSeckillPath(userId, seckillGoodsId, path)))
+                .flatMap(validPath -> {
+                    if (!validPath) {
+                        return Mono.just(Result.<Map<String, Long>>error(ResultCode.SECKILL_PATH_INVALID));
+                    }
+                    return seckillService.doSeckill(userId, seckillGoodsId, path)
+                            .map(ticket -> Result.success("秒杀请求已提交，请等待结果", Map.of("ticket", ticket)));
+                });
+    }
+
+    @GetMapping("/result/{seckillGoodsId}")
+    public Mono<Result<Long>> getResult(
+            @PathVariable Long seckillGoodsId,
+            @RequestParam(required = false) Long ticket,
+            @RequestAttribute(ReactiveAuthFilter.USER_ID) Long userId,
+            ServerHttpResponse response) {
+        return seckillService.getResult(userId, seckillGoodsId)
+                .map(result -> {
+                    if (result == 0L) {
+                        response.getHeaders().set(POLL_INTERVAL_HEADER, String.valueOf(pollIntervalMs));
+                        return Result.error(ResultCode.SECKILL_QUEUING);
+                    } else if (result < 0) {
+                        return Result.error(ResultCode.SECKILL_STOCK_EMPTY);
+                    }
+                    return Result.success("秒杀成功", result);
+                });
+    }
+}
@@ -0,0 +1,50 @@
+package com.seckill.gateway.exception;
+
+import com.seckill.common.Result;
+import com.seckill.common.ResultCode;
+import com.seckill.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.ServerWebInputException;
+
+/**
+ * 网关异常处理器 - 返回体与后端 GlobalExceptionHandler 一致
+ */
+@Slf4j
+@RestControllerAdvice
+public class GatewayExceptionHandler {
+
+    /**
+     * 处理业务异常
+     * 售罄、重复、限流等属于秒杀高峰的预期结果，逐条日志为 DEBUG
+     */
+    @ExceptionHandler(BusinessException.class)
+    public Result<Void> handleBusinessException(BusinessException e) {
+        log.debug("业务异常: code={}, message={}", e.getCode(), e.getMessage());
+        return Result.error(e.getCode(), e.getMessage());
+    }
+
+    /**
+     * 处理参数绑定、类型转换、缺少参数
+     */
+    @ExceptionHandler({WebExchangeBindException.class, ServerWebInputException.class})
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public Result<Void> handleInputException(Exception e) {
+        log.warn("参数错误: {}", e.getMessage());
+        return Result.error(ResultCode.BAD_REQUEST);
+    }
+
+    /**
+     * 处理其他异常
+     */
+    @ExceptionHandler(Exception.class)
+    @ResponseStatus(HttpStatus.INTERNAL_SERVER_ERROR)
+    public Result<Void> handleException(Exception e) {
+        log.error("未知异常: ", e);
+        return Result.error(ResultCode.ERROR);
+    }
+}
@@ -0,0 +1,100 @@
+package com.seckill.gateway.filter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seckill.common.Result;
+import com.seckill.common.ResultCode;
+import com.seckill.utils.JwtUtils;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * 网关 JWT 认证过滤器 - 与后端 JwtInterceptor 规则一致
+ * 校验签名与有效期后比对 Redis 中的当前 Token（支持踢人下线），通过后把用户ID放入请求属性 USER_ID
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class ReactiveAuthFilter implements WebFilter {
+
+    /** 请求属性：当前用户ID，控制器通过 @RequestAttribute 读取 */
+    public static final String USER_ID = "seckill.userId";
+
+    private static final String TOKEN_PREFIX = "Bearer ";
+    private static final String REDIS_TOKEN_KEY = "seckill:user:token:";
+    private static final String PROTECTED_PREFIX = "/seckill/";
+
+    private final JwtUtils jwtUtils;
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    @NonNull
+    public Mono<Void> filter(@NonNull ServerWebExchange exchange, @NonNull WebFilterChain chain) {
+        String path = exchange.getRequest().getPath().pathWithinApplication().value();
+        if (!path.startsWith(PROTECTED_PREFIX) || exchange.getRequest().getMethod() == HttpMethod.OPTIONS) {
+            return chain.filter(exchange);
+        }
+        String authHeader = exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith(TOKEN_PREFIX)) {
+            return writeError(exchange.getResponse(), ResultCode.UNAUTHORIZED);
+        }
+        String token = authHeader.substring(TOKEN_PREFIX.length());
+
+        Long userId;
+        try {
+            if (jwtUtils.isTokenExpired(token)) {
+                return writeError(exchange.getResponse(), ResultCode.USER_LOGIN_EXPIRED);
+            }
+            userId = jwtUtils.getUserId(token);
+        } catch (Exception e) {
+            log.debug("Token验证失败: {}", e.getMessage());
+            return writeError(exchange.getResponse(), ResultCode.UNAUTHORIZED);
+        }
+
+        // 验证Redis中的Token是否一致 (支持踢人下线)
+        return reactiveRedisTemplate.opsForValue().get(REDIS_TOKEN_KEY + userId)
+                .map(stored -> token.equals(stored) ? ResultCode.SUCCESS : ResultCode.USER_LOGIN_EXPIRED)
+                .defaultIfEmpty(ResultCode.USER_LOGIN_EXPIRED)
+                .onErrorResume(e -> {
+                    log.error("Token验证失败: {}", e.getMessage());
+                    return Mono.just(ResultCode.UNAUTHORIZED);
+                })
+                .flatMap(code -> {
+                    if (code != ResultCode.SUCCESS) {
+                        return writeError(exchange.getResponse(), code);
+                    }
+                    exchange.getAttributes().put(USER_ID, userId);
+                    return chain.filter(exchange);
+                });
+    }
+
+    private Mono<Void> writeError(ServerHttpResponse response, ResultCode resultCode) {
+        byte[] body;
+        try {
+            body = objectMapper.writeValueAsBytes(Result.error(resultCode));
+        } catch (JsonProcessingException e) {
+            return Mono.error(e);
+        }
+        response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+        DataBuffer buffer = response.bufferFactory().wrap(body);
+        return response.writeWith(Mono.just(buffer));
+    }
+}
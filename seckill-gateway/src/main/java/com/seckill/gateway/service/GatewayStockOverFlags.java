@@ -0,0 +1,101 @@
+package com.seckill.gateway.service;
+
+import com.seckill.service.StockOverFlags;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 网关内存售罄标记
+ *
+ * <p>
+ * 与后端 StockOverFlags 订阅同一个广播频道（秒杀 Lua 扣到 0 时 PUBLISH，归还库存时广播解除），
+ * 售罄后网关直接拒绝，不再访问 Redis。订阅断开时自动重连；广播丢失时下一次 Lua 返回 0 同样会置位。
+ * </p>
+ *
+ * 订阅随 SmartLifecycle 启停：停机时先于 Redis 连接工厂（phase 0）取消订阅，
+ * 否则连接工厂关闭后再归还订阅连接会报 PoolException。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class GatewayStockOverFlags implements SmartLifecycle {
+
+    /** 启动晚于、停止早于 Redis 连接工厂（phase 0） */
+    private static final int LIFECYCLE_PHASE = 1;
+
+    private final ReactiveStringRedisTemplate reactiveStringRedisTemplate;
+
+    private final Map<Long, Boolean> stockOverMap = new ConcurrentHashMap<>();
+    private volatile Disposable subscription;
+
+    @Override
+    public void start() {
+        subscription = reactiveStringRedisTemplate.listenToChannel(StockOverFlags.STOCK_CHANNEL)
+                .doOnNext(message -> onMessage(message.getMessage()))
+                .retryWhen(Retry.backoff(Long.MAX_VALUE, Duration.ofSeconds(1)).maxBackoff(Duration.ofSeconds(30)))
+                .subscribe();
+    }
+
+    @Override
+    public void stop() {
+        Disposable current = subscription;
+        subscription = null;
+        if (current != null) {
+            current.dispose();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return subscription != null;
+    }
+
+    @Override
+    public int getPhase() {
+        return LIFECYCLE_PHASE;
+    }
+
+    public boolean isOver(Long seckillGoodsId) {
+        return Boolean.TRUE.equals(stockOverMap.get(seckillGoodsId));
+    }
+
+    /**
+     * 仅置位本节点标记（Lua 返回库存不足或拿到最后一件时）
+     */
+    public void markOverLocally(Long seckillGoodsId) {
+        stockOverMap.put(seckillGoodsId, true);
+    }
+
+    /**
+     * 解除售罄并广播到所有节点（发送失败、库存已归还时调用）
+     */
+    public Mono<Void> clear(Long seckillGoodsId) {
+        stockOverMap.put(seckillGoodsId, false);
+        return reactiveStringRedisTemplate.convertAndSend(StockOverFlags.STOCK_CHANNEL, seckillGoodsId + ":0")
+                .doOnError(e -> log.warn("广播售罄解除失败: seckillGoodsId={}", seckillGoodsId, e))
+                .onErrorComplete()
+                .then();
+    }
+
+    private void onMessage(String body) {
+        String[] parts = body.split(":");
+        if (parts.length != 2) {
+            return;
+        }
+        try {
+            stockOverMap.put(Long.valueOf(parts[0]), "1".equals(parts[1]));
+        } catch (NumberFormatException e) {
+            log.warn("无法解析售罄标记广播: {}", body);
+        }
+    }
+}
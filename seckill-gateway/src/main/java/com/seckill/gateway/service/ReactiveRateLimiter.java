@@ -0,0 +1,46 @@
+package com.seckill.gateway.service;
+
+import com.seckill.common.ResultCode;
+import com.seckill.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+
+/**
+ * 网关限流 - 与后端 RateLimitInterceptor 使用同一个 Lua 脚本和 key（rate_limit:{请求路径}:{userId}），
+ * 同一用户经后端或网关访问共用一个计数器
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ReactiveRateLimiter {
+
+    private static final String RATE_LIMIT_KEY = "rate_limit:";
+
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+    private final DefaultRedisScript<Long> rateLimitScript;
+
+    /**
+     * 计数并检查，超过上限时以 SECKILL_LIMIT 结束
+     */
+    public Mono<Void> check(ServerHttpRequest request, Long userId, int seconds, int maxCount) {
+        String key = RATE_LIMIT_KEY + request.getPath().value() + ":" + userId;
+        return reactiveRedisTemplate.execute(rateLimitScript, Collections.singletonList(key),
+                        Collections.singletonList((long) seconds))
+                .next()
+                .flatMap(count -> {
+                    if (count > maxCount) {
+                        log.debug("接口限流触发: key={}, count={}, limit={}", key, count, maxCount);
+                        return Mono.<Void>error(new BusinessException(ResultCode.SECKILL_LIMIT));
+                    }
+                    return Mono.<Void>empty();
+                })
+                .then();
+    }
+}
@@ -0,0 +1,216 @@
+package com.seckill.gateway.service;
+
+import com.seckill.common.ResultCode;
+import com.seckill.common.SeckillKeys;
+import com.seckill.dto.SeckillMessage;
+import com.seckill.exception.BusinessException;
+import com.seckill.service.OrderIdGenerator;
+import com.seckill.utils.SeckillPathSigner;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * 网关秒杀服务 - SeckillService 抢购链路（路径、受理、结果）的非阻塞版本
+ *
+ * <p>
+ * 与后端使用同一组 Lua 脚本、key 和消息体：路径可以在后端签发、在网关执行秒杀，反之亦然；
+ * 受理后的消息由后端 SeckillConsumer 照常消费，结果照常写回 seckill:{goodsId}:result:{userId}。
+ * 所有 Redis、RabbitMQ 调用都不阻塞事件循环线程，少量线程即可同时挂起大量在途请求。
+ * </p>
+ *
+ * 仅支持 keys 存储模式：compact 模式的位图过期时刻取自商品快照（MySQL），网关不连接数据库。
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ReactiveSeckillService {
+
+    private static final String PATH_MODE_HMAC = "hmac";
+    private static final String STORAGE_MODE_COMPACT = "compact";
+    /** redis 路径模式下订单标记的值 */
+    private static final String DEFAULT_ORDER_MARK = "1";
+    /** 秒杀路径 TTL: 60秒 */
+    private static final long PATH_TTL_SECONDS = 60;
+    /** 订单标记保留时长: 24小时 */
+    private static final long RETENTION_SECONDS = 24 * 3600;
+
+    private final ReactiveRedisTemplate<String, Object> reactiveRedisTemplate;
+    @SuppressWarnings("rawtypes")
+    private final DefaultRedisScript<List> seckillScript;
+    private final DefaultRedisScript<Long> captchaPathScript;
+    private final SeckillPathSigner pathSigner;
+    private final OrderIdGenerator orderIdGenerator;
+    private final GatewayStockOverFlags stockOverFlags;
+    private final SeckillMessagePublisher messagePublisher;
+
+    /** 秒杀路径模式: redis / hmac（须与后端一致） */
+    @Value("${seckill.path.mode:redis}")
+    private String pathMode;
+
+    /** 存储模式（须与后端一致） */
+    @Value("${seckill.storage.mode:keys}")
+    private String storageMode;
+
+    @PostConstruct
+    public void checkStorageMode() {
+        if (STORAGE_MODE_COMPACT.equalsIgnoreCase(storageMode)) {
+            throw new IllegalStateException("响应式网关不支持 seckill.storage.mode=compact，请使用 keys 模式");
+        }
+    }
+
+    /**
+     * 校验验证码并签发秒杀路径
+     */
+    public Mono<String> createSeckillPath(Long userId, Long seckillGoodsId, int captchaAnswer) {
+        String captchaKey = SeckillKeys.captcha(userId, seckillGoodsId);
+        if (isHmacPathMode()) {
+            return reactiveRedisTemplate.opsForValue().getAndDelete(captchaKey)
+                    .filter(stored -> Integer.parseInt(stored.toString()) == captchaAnswer)
+                    .map(ok -> pathSigner.sign(userId, seckillGoodsId, PATH_TTL_SECONDS))
+                    .switchIfEmpty(Mono.error(() -> new BusinessException(ResultCode.SECKILL_CAPTCHA_ERROR)));
+        }
+        String path = UUID.randomUUID().toString().replace("-", "");
+        return reactiveRedisTemplate.execute(captchaPathScript,
+                        Arrays.asList(captchaKey, SeckillKeys.path(userId, seckillGoodsId)),
+                        Arrays.asList(captchaAnswer, path, PATH_TTL_SECONDS))
+                .next()
+                .filter(result -> result == 1L)
+                .map(ok -> path)
+                .switchIfEmpty(Mono.error(() -> new BusinessException(ResultCode.SECKILL_CAPTCHA_ERROR)));
+    }
+
+    /**
+     * 校验秒杀路径（redis 模式下原子 GETDEL，一次有效）
+     */
+    public Mono<Boolean> validateSeckillPath(Long userId, Long seckillGoodsId, String path) {
+        if (isHmacPathMode()) {
+            return Mono.fromSupplier(() -> pathSigner.verify(userId, seckillGoodsId, path));
+        }
+        return reactiveRedisTemplate.opsForValue().getAndDelete(SeckillKeys.path(userId, seckillGoodsId))
+                .map(stored -> path.equals(stored.toString()))
+                .defaultIfEmpty(false);
+    }
+
+    /**
+     * 执行秒杀：内存售罄标记 → Lua（重复判断 + 预减库存 + 排队号）→ 发布 MQ 消息
+     *
+     * @return 排队号
+     */
+    public Mono<Long> doSeckill(Long userId, Long seckillGoodsId, String path) {
+        return Mono.defer(() -> {
+            if (stockOverFlags.isOver(seckillGoodsId)) {
+                return Mono.<Long>error(new BusinessException(ResultCode.SECKILL_STOCK_EMPTY));
+            }
+            // hmac 模式下与 SeckillMarkStore 一致：传入 nonce key，令牌受理一次后即记录，订单标记清除后也不能重放
+            String pathNonce = isHmacPathMode() ? pathSigner.nonceOf(path) : null;
+            List<String> keys = new ArrayList<>(Arrays.asList(SeckillKeys.stock(seckillGoodsId),
+                    SeckillKeys.order(userId, seckillGoodsId), SeckillKeys.ticket(seckillGoodsId)));
+            if (pathNonce != null) {
+                keys.add(SeckillKeys.pathNonce(seckillGoodsId, pathNonce));
+            }
+            return reactiveRedisTemplate.execute(seckillScript, keys,
+                            Arrays.asList(RETENTION_SECONDS, pathNonce != null ? pathNonce : DEFAULT_ORDER_MARK,
+                                    seckillGoodsId, PATH_TTL_SECONDS))
+                    .collectList()
+                    .flatMap(reply -> accept(userId, seckillGoodsId, flatten(reply)));
+        });
+    }
+
+    private Mono<Long> accept(Long userId, Long seckillGoodsId, List<?> reply) {
+        long result = !reply.isEmpty() ? ((Number) reply.get(0)).longValue() : 0L;
+        if (result == 0) {
+            stockOverFlags.markOverLocally(seckillGoodsId);
+            return Mono.error(new BusinessException(ResultCode.SECKILL_STOCK_EMPTY));
+        }
+        if (result == -1) {
+            return Mono.error(new BusinessException(ResultCode.SECKILL_REPEAT));
+        }
+        if (((Number) reply.get(1)).longValue() == 0) {
+            // 拿到最后一件：本节点立即置位，脚本已向其它节点广播售罄
+            stockOverFlags.markOverLocally(seckillGoodsId);
+        }
+        return nextOrderId()
+                .map(orderId -> {
+                    SeckillMessage message = new SeckillMessage();
+                    message.setUserId(userId);
+                    message.setSeckillGoodsId(seckillGoodsId);
+                    message.setRequestId(newRequestId());
+                    message.setAcceptTime(System.currentTimeMillis());
+                    message.setTicket(result);
+                    message.setOrderId(orderId);
+                    return message;
+                })
+                .flatMap(messagePublisher::publish)
+                .thenReturn(result)
+                .onErrorResume(e -> rollback(userId, seckillGoodsId, e));
+    }
+
+    /**
+     * 分配订单号：租约有效且本毫秒序列号未用尽时在当前线程内存发号；
+     * 否则需要同步访问 Redis 重新申请租约（最多 32 次 SETNX/GET）或自旋等待下一毫秒，切换到 boundedElastic 执行，不占用事件循环线程
+     */
+    private Mono<Long> nextOrderId() {
+        return Mono.defer(() -> {
+            Long orderId = orderIdGenerator.tryNextId();
+            return orderId != null
+                    ? Mono.just(orderId)
+                    : Mono.fromCallable(orderIdGenerator::nextId).subscribeOn(Schedulers.boundedElastic());
+        });
+    }
+
+    /**
+     * MQ 发送失败：归还库存、清除订单标记、解除售罄、推进处理水位（与 SeckillService.doSeckill 的补偿一致）
+     */
+    private Mono<Long> rollback(Long userId, Long seckillGoodsId, Throwable cause) {
+        log.error("MQ发送失败，回滚Redis库存和订单标记: {}", cause.getMessage());
+        return reactiveRedisTemplate.opsForValue().increment(SeckillKeys.stock(seckillGoodsId))
+                .then(reactiveRedisTemplate.delete(SeckillKeys.order(userId, seckillGoodsId)))
+                .then(stockOverFlags.clear(seckillGoodsId))
+                .then(reactiveRedisTemplate.opsForValue().increment(SeckillKeys.queueDone(seckillGoodsId)))
+                .onErrorResume(e -> {
+                    log.error("回滚秒杀库存失败: userId={}, seckillGoodsId={}", userId, seckillGoodsId, e);
+                    return Mono.empty();
+                })
+                .then(Mono.<Long>error(new BusinessException("秒杀繁忙，请稍后重试")));
+    }
+
+    /**
+     * 读取秒杀结果
+     *
+     * @return orderId-成功 -1-失败 0-排队中
+     */
+    public Mono<Long> getResult(Long userId, Long seckillGoodsId) {
+        return reactiveRedisTemplate.opsForValue().get(SeckillKeys.result(userId, seckillGoodsId))
+                .map(result -> Long.valueOf(result.toString()))
+                .defaultIfEmpty(0L);
+    }
+
+    private boolean isHmacPathMode() {
+        return PATH_MODE_HMAC.equalsIgnoreCase(pathMode);
+    }
+
+    /**
+     * 响应式脚本执行会把多值返回拆成逐个元素，这里兼容拆开和未拆开两种形式
+     */
+    private static List<?> flatten(List<?> reply) {
+        return reply.size() == 1 && reply.get(0) instanceof List<?> nested ? nested : reply;
+    }
+
+    private static String newRequestId() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return new UUID(random.nextLong(), random.nextLong()).toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.seckill.gateway.service;
+
+import com.rabbitmq.client.AMQP;
+import com.seckill.config.RabbitMQConfig;
+import com.seckill.dto.SeckillMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.support.DefaultMessagePropertiesConverter;
+import org.springframework.amqp.rabbit.support.MessagePropertiesConverter;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.rabbitmq.OutboundMessage;
+import reactor.rabbitmq.Sender;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 秒杀消息响应式发布
+ *
+ * <p>
+ * 消息体和消息属性由后端同款 Jackson2JsonMessageConverter 生成（JSON、__TypeId__ 头、持久化投递），
+ * 后端 SeckillConsumer 无需区分消息来自哪一套网关。
+ * </p>
+ */
+@Component
+@RequiredArgsConstructor
+public class SeckillMessagePublisher {
+
+    private final Sender rabbitSender;
+
+    private final MessageConverter messageConverter = new Jackson2JsonMessageConverter();
+    private final MessagePropertiesConverter propertiesConverter = new DefaultMessagePropertiesConverter();
+
+    /**
+     * 发布到秒杀交换机，写入通道后完成
+     */
+    public Mono<Void> publish(SeckillMessage message) {
+        return Mono.fromCallable(() -> toOutbound(message))
+                .flatMap(outbound -> rabbitSender.send(Mono.just(outbound)));
+    }
+
+    private OutboundMessage toOutbound(SeckillMessage message) {
+        Message amqpMessage = messageConverter.toMessage(message, new MessageProperties());
+        AMQP.BasicProperties properties = propertiesConverter.fromMessageProperties(
+                amqpMessage.getMessageProperties(), StandardCharsets.UTF_8.name());
+        return new OutboundMessage(RabbitMQConfig.SECKILL_EXCHANGE, RabbitMQConfig.SECKILL_ROUTING_KEY,
+                properties, amqpMessage.getBody());
+    }
+}
@@ -0,0 +1,134 @@
+package com.seckill.loadtest;
+
+import com.github.fppt.jedismock.RedisServer;
+import com.seckill.config.RabbitMQConfig;
+import org.apache.qpid.server.SystemLauncher;
+import org.apache.qpid.server.model.SystemConfig;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.DirectExchange;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.core.RabbitAdmin;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * 进程内基础设施替身
+ *
+ * <ul>
+ *     <li>Redis: jedis-mock（支持 EVAL/Lua、Pub/Sub）</li>
+ *     <li>RabbitMQ: 嵌入式 Qpid Broker-J，AMQP 0-9-1，内存存储</li>
+ *     <li>MySQL: H2 MySQL 兼容模式，见 application-loadtest.yml</li>
+ * </ul>
+ *
+ * Broker-J 不识别 RabbitMQ 的死信/TTL 队列参数，因此关闭后端的自动声明，
+ * 由这里按 RabbitMQConfig 的名称预先声明拓扑；订单超时取消链路不在压测范围内。
+ */
+final class EmbeddedStandIns implements AutoCloseable {
+
+    static final String AMQP_USER = "loadtest";
+    static final String AMQP_PASSWORD = "loadtest";
+    static final String AMQP_VHOST = "default";
+
+    private final RedisServer redisServer;
+    private final SystemLauncher broker;
+    private final int amqpPort;
+    private final Path brokerWorkDir;
+
+    private EmbeddedStandIns(RedisServer redisServer, SystemLauncher broker, int amqpPort, Path brokerWorkDir) {
+        this.redisServer = redisServer;
+        this.broker = broker;
+        this.amqpPort = amqpPort;
+        this.brokerWorkDir = brokerWorkDir;
+    }
+
+    static EmbeddedStandIns start() throws Exception {
+        RedisServer redisServer = RedisServer.newRedisServer().start();
+
+        int amqpPort = freePort();
+        Path workDir = Files.createTempDirectory("seckill-loadtest-broker");
+        Map<String, Object> attributes = new HashMap<>();
+        attributes.put(SystemConfig.TYPE, "Memory");
+        attributes.put(SystemConfig.INITIAL_CONFIGURATION_LOCATION, resourceUrl("loadtest/qpid-config.json"));
+        attributes.put(SystemConfig.INITIAL_SYSTEM_PROPERTIES_LOCATION, resourceUrl("loadtest/qpid-system.properties"));
+        attributes.put(SystemConfig.STARTUP_LOGGED_TO_SYSTEM_OUT, false);
+        attributes.put(SystemConfig.CONTEXT, Map.of(
+                "qpid.amqp_port", String.valueOf(amqpPort),
+                "qpid.work_dir", workDir.toString(),
+                "qpid.home_dir", workDir.toString()));
+        SystemLauncher broker = new SystemLauncher();
+        broker.startup(attributes);
+
+        EmbeddedStandIns standIns = new EmbeddedStandIns(redisServer, broker, amqpPort, workDir);
+        standIns.declareTopology();
+        return standIns;
+    }
+
+    /**
+     * 注入给后端/网关的连接属性
+     * 以命令行参数形式传入：优先级高于 application.yml 中的 ${REDIS_PORT:6379} 等默认值
+     * （SpringApplicationBuilder.properties 注册的是最低优先级的默认属性，会被 yml 覆盖）
+     */
+    String[] springArgs() {
+        return new String[]{
+                "--spring.data.redis.host=" + redisServer.getHost(),
+                "--spring.data.redis.port=" + redisServer.getBindPort(),
+                "--spring.rabbitmq.host=127.0.0.1",
+                "--spring.rabbitmq.port=" + amqpPort};
+    }
+
+    private void declareTopology() {
+        CachingConnectionFactory connectionFactory = new CachingConnectionFactory("127.0.0.1", amqpPort);
+        connectionFactory.setUsername(AMQP_USER);
+        connectionFactory.setPassword(AMQP_PASSWORD);
+        connectionFactory.setVirtualHost(AMQP_VHOST);
+        try {
+            RabbitAdmin admin = new RabbitAdmin(connectionFactory);
+            declare(admin, RabbitMQConfig.SECKILL_EXCHANGE, RabbitMQConfig.SECKILL_QUEUE, RabbitMQConfig.SECKILL_ROUTING_KEY);
+            declare(admin, RabbitMQConfig.ORDER_DELAY_EXCHANGE, RabbitMQConfig.ORDER_DELAY_QUEUE, RabbitMQConfig.ORDER_DELAY_ROUTING_KEY);
+            declare(admin, RabbitMQConfig.ORDER_DEAD_EXCHANGE, RabbitMQConfig.ORDER_DEAD_QUEUE, RabbitMQConfig.ORDER_DEAD_ROUTING_KEY);
+        } finally {
+            connectionFactory.destroy();
+        }
+    }
+
+    private static void declare(RabbitAdmin admin, String exchangeName, String queueName, String routingKey) {
+        DirectExchange exchange = new DirectExchange(exchangeName, true, false);
+        Queue queue = QueueBuilder.durable(queueName).build();
+        Binding binding = BindingBuilder.bind(queue).to(exchange).with(routingKey);
+        admin.declareExchange(exchange);
+        admin.declareQueue(queue);
+        admin.declareBinding(binding);
+    }
+
+    /**
+     * 资源的实际 URL（fat jar 中为 jar:nested:），Broker-J 的 classpath: 协议在 fat jar 中不可用
+     */
+    private static String resourceUrl(String name) {
+        return EmbeddedStandIns.class.getClassLoader().getResource(name).toExternalForm();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        broker.shutdown();
+        redisServer.stop();
+        try (Stream<Path> files = Files.walk(brokerWorkDir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+}
@@ -0,0 +1,301 @@
+package com.seckill.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.seckill.common.SeckillKeys;
+import com.seckill.utils.Md5Utils;
+import io.lettuce.core.RedisCommandInterruptedException;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.data.redis.RedisSystemException;
+import org.springframework.data.redis.core.RedisTemplate;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 虚拟线程压测客户端
+ *
+ * <p>
+ * 每个用户一个虚拟线程，先全部登录，然后在同一时刻"开抢"：
+ * 验证码 → 获取路径 → 执行秒杀 → 按 X-Poll-Interval 轮询结果。
+ * 验证码答案直接从 Redis 读取（绕过人工识图）。
+ * 路径、秒杀、结果三个抢购接口可指向另一个地址（响应式网关），登录和验证码始终走后端。
+ * </p>
+ */
+final class LoadTestDriver {
+
+    enum Endpoint { LOGIN, CAPTCHA, PATH, DO, RESULT }
+
+    enum Outcome { ORDER_SUCCESS, ORDER_FAIL, SOLD_OUT, REJECTED, RESULT_TIMEOUT }
+
+    record Session(long userId, String token) {
+    }
+
+    private static final int CODE_SUCCESS = 200;
+    private static final int CODE_STOCK_EMPTY = 3004;
+    private static final int CODE_QUEUING = 3008;
+    private static final long DEFAULT_POLL_INTERVAL_MS = 2000;
+    /** 直方图上限：1 分钟（微秒） */
+    private static final long HISTOGRAM_MAX_MICROS = TimeUnit.MINUTES.toMicros(1);
+
+    private final String baseUrl;
+    private final String purchaseBaseUrl;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final long goodsId;
+    private final Duration resultTimeout;
+    private final HttpClient http;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    private final Map<Endpoint, Histogram> latency = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, long[]> phaseWindow = new EnumMap<>(Endpoint.class);
+    private final Map<Outcome, LongAdder> outcomes = new EnumMap<>(Outcome.class);
+
+    private final AtomicLong firstAcceptNanos = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong lastDrainNanos = new AtomicLong();
+
+    LoadTestDriver(String baseUrl, String purchaseBaseUrl, RedisTemplate<String, Object> redisTemplate,
+                   long goodsId, Duration resultTimeout) {
+        this.baseUrl = baseUrl;
+        this.purchaseBaseUrl = purchaseBaseUrl;
+        this.redisTemplate = redisTemplate;
+        this.goodsId = goodsId;
+        this.resultTimeout = resultTimeout;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        for (Endpoint endpoint : Endpoint.values()) {
+            latency.put(endpoint, new ConcurrentHistogram(HISTOGRAM_MAX_MICROS, 3));
+            errors.put(endpoint, new LongAdder());
+            phaseWindow.put(endpoint, new long[]{Long.MAX_VALUE, 0});
+        }
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new LongAdder());
+        }
+    }
+
+    /**
+     * 并发登录所有用户
+     */
+    List<Session> login(List<String> phones, String password) throws InterruptedException {
+        List<Session> sessions = Collections.synchronizedList(new ArrayList<>(phones.size()));
+        String midPassword = Md5Utils.inputToMid(password);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (String phone : phones) {
+                executor.submit(() -> {
+                    String body = "{\"phone\":\"" + phone + "\",\"password\":\"" + midPassword + "\"}";
+                    Response res = send(Endpoint.LOGIN, HttpRequest.newBuilder(uri("/user/login"))
+                            .header("Content-Type", "application/json")
+                            .POST(HttpRequest.BodyPublishers.ofString(body))
+                            .build());
+                    if (res != null && res.code() == CODE_SUCCESS) {
+                        JsonNode data = res.body().path("data");
+                        sessions.add(new Session(data.path("userId").asLong(), data.path("token").asText()));
+                    }
+                });
+            }
+        }
+        return sessions;
+    }
+
+    /**
+     * 所有会话同时开抢，直到每个客户端拿到最终结果（或超时）
+     */
+    void burst(List<Session> sessions) throws InterruptedException {
+        CountDownLatch startGun = new CountDownLatch(1);
+        Thread monitor = Thread.ofVirtual().start(this::monitorQueue);
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (Session session : sessions) {
+                executor.submit(() -> {
+                    startGun.await();
+                    purchase(session);
+                    return null;
+                });
+            }
+            startGun.countDown();
+        } finally {
+            monitor.interrupt();
+            monitor.join();
+        }
+    }
+
+    private void purchase(Session session) throws InterruptedException {
+        Response captcha = send(Endpoint.CAPTCHA, get(uri("/captcha/seckill/" + goodsId), session));
+        if (!isSuccess(captcha)) {
+            count(Outcome.REJECTED);
+            return;
+        }
+        Object answer = redisTemplate.opsForValue().get(SeckillKeys.captcha(session.userId(), goodsId));
+
+        Response path = send(Endpoint.PATH,
+                get(purchaseUri("/seckill/path/" + goodsId + "?captcha=" + answer), session));
+        if (!isSuccess(path)) {
+            count(Outcome.REJECTED);
+            return;
+        }
+        String seckillPath = path.body().path("data").path("path").asText();
+
+        Response done = send(Endpoint.DO, HttpRequest.newBuilder(purchaseUri("/seckill/" + seckillPath + "/do/" + goodsId))
+                .header("Authorization", "Bearer " + session.token())
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build());
+        if (done == null || done.code() != CODE_SUCCESS) {
+            count(done != null && done.code() == CODE_STOCK_EMPTY ? Outcome.SOLD_OUT : Outcome.REJECTED);
+            return;
+        }
+        firstAcceptNanos.accumulateAndGet(System.nanoTime(), Math::min);
+        long ticket = done.body().path("data").path("ticket").asLong();
+
+        long deadline = System.nanoTime() + resultTimeout.toNanos();
+        while (System.nanoTime() < deadline) {
+            Response result = send(Endpoint.RESULT,
+                    get(purchaseUri("/seckill/result/" + goodsId + "?ticket=" + ticket), session));
+            if (result != null && result.code() == CODE_SUCCESS) {
+                count(Outcome.ORDER_SUCCESS);
+                return;
+            }
+            if (result != null && result.code() == CODE_STOCK_EMPTY) {
+                count(Outcome.ORDER_FAIL);
+                return;
+            }
+            long interval = DEFAULT_POLL_INTERVAL_MS;
+            if (result != null && result.code() == CODE_QUEUING) {
+                interval = result.headers().firstValueAsLong("X-Poll-Interval").orElse(DEFAULT_POLL_INTERVAL_MS);
+            }
+            Thread.sleep(interval);
+        }
+        count(Outcome.RESULT_TIMEOUT);
+    }
+
+    /**
+     * 每 10ms 采样一次排队号与处理水位，记录最后一次推进处理水位的时刻
+     */
+    private void monitorQueue() {
+        long lastDone = -1;
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                long done = counter(SeckillKeys.queueDone(goodsId));
+                if (done != lastDone) {
+                    lastDone = done;
+                    lastDrainNanos.set(System.nanoTime());
+                }
+                Thread.sleep(10);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RedisSystemException e) {
+                // 停止采样的中断也可能落在 Redis 调用中
+                if (!(e.getCause() instanceof RedisCommandInterruptedException)) {
+                    throw e;
+                }
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private long counter(String key) {
+        Object value = redisTemplate.opsForValue().get(key);
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+
+    private record Response(int code, JsonNode body, HttpHeaders headers) {
+    }
+
+    private Response send(Endpoint endpoint, HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            HttpResponse<String> response = http.send(request, HttpResponse.BodyHandlers.ofString());
+            long end = System.nanoTime();
+            record(endpoint, start, end);
+            JsonNode body = mapper.readTree(response.body());
+            int code = body.path("code").asInt(response.statusCode());
+            if (code != CODE_SUCCESS && code != CODE_QUEUING && code != CODE_STOCK_EMPTY) {
+                errors.get(endpoint).increment();
+            }
+            return new Response(code, body, response.headers());
+        } catch (IOException e) {
+            errors.get(endpoint).increment();
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private void record(Endpoint endpoint, long start, long end) {
+        latency.get(endpoint).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(end - start), HISTOGRAM_MAX_MICROS));
+        long[] window = phaseWindow.get(endpoint);
+        synchronized (window) {
+            window[0] = Math.min(window[0], start);
+            window[1] = Math.max(window[1], end);
+        }
+    }
+
+    private HttpRequest get(URI uri, Session session) {
+        return HttpRequest.newBuilder(uri)
+                .header("Authorization", "Bearer " + session.token())
+                .GET()
+                .build();
+    }
+
+    private URI uri(String path) {
+        return URI.create(baseUrl + path);
+    }
+
+    private URI purchaseUri(String path) {
+        return URI.create(purchaseBaseUrl + path);
+    }
+
+    private static boolean isSuccess(Response response) {
+        return response != null && response.code() == CODE_SUCCESS;
+    }
+
+    private void count(Outcome outcome) {
+        outcomes.get(outcome).increment();
+    }
+
+    Histogram latency(Endpoint endpoint) {
+        return latency.get(endpoint);
+    }
+
+    long errors(Endpoint endpoint) {
+        return errors.get(endpoint).sum();
+    }
+
+    /** 该接口第一次请求开始到最后一次响应结束的墙钟时间(秒) */
+    double phaseSeconds(Endpoint endpoint) {
+        long[] window = phaseWindow.get(endpoint);
+        synchronized (window) {
+            return window[1] > window[0] ? (window[1] - window[0]) / 1_000_000_000.0 : 0;
+        }
+    }
+
+    long outcome(Outcome outcome) {
+        return outcomes.get(outcome).sum();
+    }
+
+    /** 第一个请求被受理到消费端处理完最后一条消息的时间(毫秒)，无受理时为 -1 */
+    long drainMillis() {
+        long first = firstAcceptNanos.get();
+        long last = lastDrainNanos.get();
+        return first == Long.MAX_VALUE || last < first ? -1 : TimeUnit.NANOSECONDS.toMillis(last - first);
+    }
+}
@@ -0,0 +1,150 @@
+package com.seckill.loadtest;
+
+import com.seckill.SeckillApplication;
+import com.seckill.gateway.SeckillGatewayApplication;
+import com.seckill.service.GoodsIdFilter;
+import com.seckill.service.SeckillService;
+import com.seckill.utils.Md5Utils;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单机端到端压测入口
+ *
+ * <p>
+ * 在同一进程内启动 Redis/MQ/DB 替身和完整后端，写入压测商品与用户，
+ * 用虚拟线程模拟大量用户走完 登录 → 验证码 → 路径 → 秒杀 → 结果 全流程，最后输出报告并校验超卖/少卖。
+ * </p>
+ *
+ * <pre>
+ * java -jar seckill-loadtest/target/seckill-loadtest-1.0.0.jar --users=5000 --stock=500 --timeout=120
+ * java -jar seckill-loadtest/target/seckill-loadtest-1.0.0.jar --users=5000 --stock=500 --stack=reactive
+ * </pre>
+ *
+ * --stack=servlet（默认）全部请求走后端；--stack=reactive 另起响应式网关，路径/秒杀/结果三个接口改走网关，
+ * 两次运行的报告即两套抢购接口在同一数据量下的对比。
+ *
+ * 退出码：0-校验通过 1-超卖/少卖/结果不一致
+ */
+public final class LoadTestMain {
+
+    private static final String PASSWORD = "123456";
+    private static final String SALT = "lt2026ab";
+    private static final String STACK_SERVLET = "servlet";
+    private static final String STACK_REACTIVE = "reactive";
+
+    private LoadTestMain() {
+    }
+
+    @SuppressWarnings("unchecked")
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        int users = Integer.parseInt(options.getOrDefault("users", "5000"));
+        int stock = Integer.parseInt(options.getOrDefault("stock", "500"));
+        int timeoutSeconds = Integer.parseInt(options.getOrDefault("timeout", "120"));
+        String stack = options.getOrDefault("stack", STACK_SERVLET);
+        if (!STACK_SERVLET.equals(stack) && !STACK_REACTIVE.equals(stack)) {
+            throw new IllegalArgumentException("--stack 仅支持 servlet / reactive: " + stack);
+        }
+
+        boolean passed;
+        try (EmbeddedStandIns standIns = EmbeddedStandIns.start();
+             ConfigurableApplicationContext context = new SpringApplicationBuilder(SeckillApplication.class)
+                     .profiles("loadtest")
+                     .run(standIns.springArgs());
+             ConfigurableApplicationContext gateway = STACK_REACTIVE.equals(stack)
+                     ? SeckillGatewayApplication.builder()
+                             .profiles("loadtest")
+                             .run(standIns.springArgs())
+                     : null) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            int purchasePort = gateway != null
+                    ? ((WebServerApplicationContext) gateway).getWebServer().getPort() : port;
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            RedisTemplate<String, Object> redisTemplate = context.getBean("redisTemplate", RedisTemplate.class);
+
+            long goodsId = seedGoods(jdbcTemplate, stock);
+            List<String> phones = seedUsers(jdbcTemplate, users);
+            context.getBean(SeckillService.class).reloadSingleSeckillStock(goodsId);
+            // 商品绕过 GoodsService 直接写库，手动重建商品ID位图
+            context.getBean(GoodsIdFilter.class).rebuild();
+
+            LoadTestDriver driver = new LoadTestDriver("http://127.0.0.1:" + port + "/api",
+                    "http://127.0.0.1:" + purchasePort + "/api",
+                    redisTemplate, goodsId, Duration.ofSeconds(timeoutSeconds));
+            System.out.printf("登录 %d 个用户...%n", users);
+            List<LoadTestDriver.Session> sessions = driver.login(phones, PASSWORD);
+            System.out.printf("登录成功 %d 个，开抢%n", sessions.size());
+            driver.burst(sessions);
+
+            LoadTestReport report = new LoadTestReport(driver, sessions.size(), stock, stack);
+            passed = report.verify(jdbcTemplate, redisTemplate, goodsId);
+            report.print(System.out);
+        }
+        System.exit(passed ? 0 : 1);
+    }
+
+    private static long seedGoods(JdbcTemplate jdbcTemplate, int stock) {
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.update(connection -> {
+            PreparedStatement ps = connection.prepareStatement(
+                    "INSERT INTO t_seckill_goods (goods_name, goods_title, goods_price, seckill_price, stock_count, " +
+                            "start_date, end_date, goods_status, seckill_status) VALUES (?, ?, ?, ?, ?, ?, ?, 1, 1)",
+                    // 只取 id：H2 会把带默认值的 create_time/update_time 也作为生成列返回
+                    new String[]{"id"});
+            ps.setString(1, "压测商品");
+            ps.setString(2, "seckill-loadtest");
+            ps.setBigDecimal(3, new BigDecimal("999.00"));
+            ps.setBigDecimal(4, new BigDecimal("1.00"));
+            ps.setInt(5, stock);
+            ps.setTimestamp(6, Timestamp.valueOf(now.minusMinutes(1)));
+            ps.setTimestamp(7, Timestamp.valueOf(now.plusHours(1)));
+            return ps;
+        }, keyHolder);
+        return keyHolder.getKey().longValue();
+    }
+
+    private static List<String> seedUsers(JdbcTemplate jdbcTemplate, int users) {
+        String dbPassword = Md5Utils.midToDb(Md5Utils.inputToMid(PASSWORD), SALT);
+        List<String> phones = new ArrayList<>(users);
+        List<Object[]> rows = new ArrayList<>(users);
+        for (int i = 0; i < users; i++) {
+            String phone = String.format("199%08d", i);
+            phones.add(phone);
+            rows.add(new Object[]{"lt" + i, dbPassword, SALT, phone, "压测用户" + i});
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO t_user (username, password, salt, phone, nickname) VALUES (?, ?, ?, ?, ?)", rows);
+        return phones;
+    }
+
+    /**
+     * 解析 --key=value 形式的参数
+     */
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (arg.startsWith("--") && arg.contains("=")) {
+                int eq = arg.indexOf('=');
+                options.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return options;
+    }
+}
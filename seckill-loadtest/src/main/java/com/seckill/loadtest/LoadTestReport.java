@@ -0,0 +1,93 @@
+package com.seckill.loadtest;
+
+import com.seckill.common.SeckillKeys;
+import org.HdrHistogram.Histogram;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.PrintStream;
+
+/**
+ * 压测报告：各接口吞吐与延迟分位、秒杀结果分布、队列排空时间、超卖/少卖校验
+ */
+final class LoadTestReport {
+
+    private final LoadTestDriver driver;
+    private final int users;
+    private final int stock;
+    private final String stack;
+
+    private long orders;
+    private long orderInfos;
+    private int dbStock;
+    private Object redisStock;
+    private boolean oversold;
+    private boolean undersold;
+
+    LoadTestReport(LoadTestDriver driver, int users, int stock, String stack) {
+        this.driver = driver;
+        this.users = users;
+        this.stock = stock;
+        this.stack = stack;
+    }
+
+    /**
+     * 用数据库最终状态校验库存一致性
+     *
+     * @return 校验是否通过
+     */
+    boolean verify(JdbcTemplate jdbcTemplate, RedisTemplate<String, Object> redisTemplate, long goodsId) {
+        dbStock = jdbcTemplate.queryForObject(
+                "SELECT stock_count FROM t_seckill_goods WHERE id = ?", Integer.class, goodsId);
+        orders = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM t_seckill_order WHERE goods_id = ?", Long.class, goodsId);
+        orderInfos = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM t_order_info WHERE goods_id = ?", Long.class, goodsId);
+        redisStock = redisTemplate.opsForValue().get(SeckillKeys.stock(goodsId));
+
+        // 超卖：订单数超过初始库存，或 DB 库存与订单数对不上
+        oversold = orders > stock || dbStock < 0 || orders + dbStock != stock || orderInfos != orders;
+        // 少卖：有用户被告知售罄或抢购失败，但所有请求结束后仍有库存没卖出去
+        // （被舱壁/限流拒绝的请求没有进入抢购，不计入少卖）
+        undersold = orders < stock && (driver.outcome(LoadTestDriver.Outcome.SOLD_OUT) > 0
+                || driver.outcome(LoadTestDriver.Outcome.ORDER_FAIL) > 0);
+        return !oversold && !undersold && driver.outcome(LoadTestDriver.Outcome.ORDER_SUCCESS) == orders;
+    }
+
+    void print(PrintStream out) {
+        out.println();
+        out.println("==================== 秒杀压测报告 ====================");
+        out.printf("用户数: %d   初始库存: %d   抢购接口: %s%n%n", users, stock, stack);
+
+        out.printf("%-8s %9s %7s %10s %9s %9s %9s %9s%n",
+                "接口", "请求数", "错误", "吞吐(/s)", "p50(ms)", "p99(ms)", "p999(ms)", "max(ms)");
+        for (LoadTestDriver.Endpoint endpoint : LoadTestDriver.Endpoint.values()) {
+            Histogram h = driver.latency(endpoint);
+            double seconds = driver.phaseSeconds(endpoint);
+            out.printf("%-8s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    endpoint, h.getTotalCount(), driver.errors(endpoint),
+                    seconds > 0 ? h.getTotalCount() / seconds : 0,
+                    millis(h.getValueAtPercentile(50)), millis(h.getValueAtPercentile(99)),
+                    millis(h.getValueAtPercentile(99.9)), millis(h.getMaxValue()));
+        }
+
+        out.println();
+        for (LoadTestDriver.Outcome outcome : LoadTestDriver.Outcome.values()) {
+            out.printf("%-15s %d%n", outcome, driver.outcome(outcome));
+        }
+        out.printf("队列排空耗时: %d ms%n", driver.drainMillis());
+
+        out.println();
+        out.printf("订单数(t_seckill_order): %d   订单数(t_order_info): %d%n", orders, orderInfos);
+        out.printf("DB 剩余库存: %d   Redis 剩余库存: %s%n", dbStock, redisStock);
+        out.printf("超卖: %s   少卖: %s   客户端成功数与订单数一致: %s%n",
+                oversold ? "是 ✗" : "否 ✓",
+                undersold ? "是 ✗" : "否 ✓",
+                driver.outcome(LoadTestDriver.Outcome.ORDER_SUCCESS) == orders ? "是 ✓" : "否 ✗");
+        out.println("======================================================");
+    }
+
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+}
@@ -0,0 +1,87 @@
+-- =============================================
+-- 压测用 H2 表结构（MySQL 兼容模式），与 seckill-backend/src/main/resources/db/init.sql 保持一致
+-- 去掉了 ENGINE/CHARSET/COMMENT 等 H2 不支持的 MySQL 语法；测试数据由 LoadTestMain 写入
+-- =============================================
+
+CREATE TABLE IF NOT EXISTS t_user (
+    id          BIGINT       NOT NULL AUTO_INCREMENT,
+    username    VARCHAR(50)  NOT NULL,
+    password    VARCHAR(128) NOT NULL,
+    salt        VARCHAR(16)  NOT NULL,
+    phone       VARCHAR(20)  NOT NULL,
+    nickname    VARCHAR(50)  DEFAULT NULL,
+    avatar      VARCHAR(255) DEFAULT NULL,
+    role        TINYINT      NOT NULL DEFAULT 0,
+    status      TINYINT      NOT NULL DEFAULT 1,
+    create_time DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time DATETIME     NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    deleted     TINYINT      NOT NULL DEFAULT 0,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_phone UNIQUE (phone),
+    CONSTRAINT uk_username UNIQUE (username)
+);
+
+CREATE TABLE IF NOT EXISTS t_seckill_goods (
+    id             BIGINT        NOT NULL AUTO_INCREMENT,
+    goods_name     VARCHAR(100)  NOT NULL,
+    goods_title    VARCHAR(200)  DEFAULT NULL,
+    goods_img      VARCHAR(500)  DEFAULT NULL,
+    goods_detail   TEXT          DEFAULT NULL,
+    goods_price    DECIMAL(10,2) NOT NULL,
+    seckill_price  DECIMAL(10,2) NOT NULL,
+    stock_count    INT           NOT NULL DEFAULT 0,
+    start_date     DATETIME      NOT NULL,
+    end_date       DATETIME      NOT NULL,
+    goods_status   TINYINT       NOT NULL DEFAULT 1,
+    seckill_status TINYINT       NOT NULL DEFAULT 0,
+    create_time    DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time    DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    deleted        TINYINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS t_order_info (
+    id               BIGINT        NOT NULL,
+    user_id          BIGINT        NOT NULL,
+    goods_id         BIGINT        NOT NULL,
+    delivery_addr_id BIGINT        DEFAULT NULL,
+    goods_name       VARCHAR(100)  DEFAULT NULL,
+    goods_count      INT           NOT NULL DEFAULT 1,
+    goods_price      DECIMAL(10,2) NOT NULL,
+    status           TINYINT       NOT NULL DEFAULT 0,
+    pay_time         DATETIME      DEFAULT NULL,
+    create_time      DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    update_time      DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    deleted          TINYINT       NOT NULL DEFAULT 0,
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_order_user_id ON t_order_info (user_id);
+CREATE INDEX IF NOT EXISTS idx_order_goods_id ON t_order_info (goods_id);
+
+CREATE TABLE IF NOT EXISTS t_seckill_order (
+    id          BIGINT   NOT NULL,
+    user_id     BIGINT   NOT NULL,
+    order_id    BIGINT   NOT NULL,
+    goods_id    BIGINT   NOT NULL,
+    create_time DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id),
+    CONSTRAINT uk_user_goods UNIQUE (user_id, goods_id)
+);
+
+CREATE TABLE IF NOT EXISTS t_order_info_archive (
+    id               BIGINT        NOT NULL,
+    user_id          BIGINT        NOT NULL,
+    goods_id         BIGINT        NOT NULL,
+    delivery_addr_id BIGINT        DEFAULT NULL,
+    goods_name       VARCHAR(100)  DEFAULT NULL,
+    goods_count      INT           NOT NULL DEFAULT 1,
+    goods_price      DECIMAL(10,2) NOT NULL,
+    status           TINYINT       NOT NULL,
+    pay_time         DATETIME      DEFAULT NULL,
+    create_time      DATETIME      NOT NULL,
+    update_time      DATETIME      NOT NULL,
+    deleted          TINYINT       NOT NULL DEFAULT 0,
+    archive_time     DATETIME      NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (id)
+);
+CREATE INDEX IF NOT EXISTS idx_archive_user_id ON t_order_info_archive (user_id);
@@ -1,4 +1,11 @@
+import axios from 'axios'
 import request from '../utils/request'
+import { useUserStore } from '../stores/user'
+
+function authHeaders(): Record<string, string> {
+    const userStore = useUserStore()
+    return userStore.token ? { Authorization: `Bearer ${userStore.token}` } : {}
+}
 
 // ==================== 用户接口 ====================
 export const userApi = {
@@ -42,7 +49,26 @@ export const seckillApi = {
 
     /** 查询秒杀结果 */
     getResult: (seckillGoodsId: number) =>
-        request.get(`/seckill/result/${seckillGoodsId}`)
+        request.get(`/seckill/result/${seckillGoodsId}`),
+
+    /** 订阅秒杀结果推送(SSE)，EventSource 不支持自定义请求头，这里用 fetch 读取事件流 */
+    streamResult: (seckillGoodsId: number, signal: AbortSignal) =>
+        fetch(`/api/seckill/result/stream/${seckillGoodsId}`, {
+            headers: { ...authHeaders(), Accept: 'text/event-stream' },
+            signal
+        }),
+
+    /** 轮询秒杀结果(推送降级)，排队中(3008)是正常状态，不走全局错误提示 */
+    pollResult: (seckillGoodsId: number, ticket?: number) =>
+        axios.get(`/api/seckill/result/${seckillGoodsId}`, {
+            headers: authHeaders(),
+            params: { ticket },
+            timeout: 15000
+        }),
+
+    /** 查询排队进度(前方人数、预计等待时间、建议查询间隔) */
+    getQueueStatus: (seckillGoodsId: number, ticket: number) =>
+        request.get(`/seckill/queue/${seckillGoodsId}`, { params: { ticket } })
 }
 
 // ==================== 订单接口 ====================